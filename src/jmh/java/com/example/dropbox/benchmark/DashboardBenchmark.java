@@ -0,0 +1,137 @@
+package com.example.dropbox.benchmark;
+
+import com.example.dropbox.DropboxApplication;
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.support.MockDropboxServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /dashboard through the full application context: security filters, the controller, the
+ * parallel WebClient calls to a local {@link MockDropboxServer} and the Thymeleaf render. With
+ * {@code cached=false} the team-info and member caches are cleared before every call so each render
+ * pays for the outbound requests. Rate limits are lifted so the limiter does not set the pace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DashboardBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private MockDropboxServer server;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private OAuth2AuthenticationToken adminAuthentication;
+    private RefreshingCache<?, ?> teamInfoCache;
+    private RefreshingCache<?, ?> memberDirectoryCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new MockDropboxServer().start();
+        // Passed as arguments rather than default properties so they win over application.yaml.
+        context = new SpringApplicationBuilder(DropboxApplication.class).run(
+                "--server.port=0",
+                "--api.external.base-url=" + server.baseUrl(),
+                "--events.ingestion.enabled=false",
+                "--session.store.type=memory",
+                // Measure the fully rendered page rather than a shell that streams its sections.
+                "--dashboard.inline-wait=10s",
+                "--api.external.rate-limit.app.permits-per-second=1000000",
+                "--api.external.rate-limit.app.burst=1000000",
+                "--api.external.rate-limit.team.permits-per-second=1000000",
+                "--api.external.rate-limit.team.burst=1000000",
+                "--EXTERNAL_API_CLIENT_ID=benchmark",
+                "--EXTERNAL_API_CLIENT_SECRET=benchmark",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.dropbox=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web.client=WARN");
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+
+        DropboxAdminPrincipal principal = new DropboxAdminPrincipal(
+                "dbmid:benchmark", "admin@example.com", "Benchmark Admin", "dbtid:benchmark");
+        adminAuthentication = new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "dbx");
+
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "benchmark-token", now, now.plus(Duration.ofDays(1)));
+        context.getBean(OAuth2AuthorizedClientService.class).saveAuthorizedClient(
+                new OAuth2AuthorizedClient(
+                        context.getBean(ClientRegistrationRepository.class).findByRegistrationId("dbx"),
+                        principal.getName(), accessToken),
+                adminAuthentication);
+
+        teamInfoCache = context.getBean("teamInfoCache", RefreshingCache.class);
+        memberDirectoryCache = context.getBean("memberDirectoryCache", RefreshingCache.class);
+
+        String page = renderDashboard();
+        if (!page.contains("Example Team") || page.contains("Still loading")) {
+            throw new IllegalStateException("Dashboard did not render every section from the mock server");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String renderDashboard() throws Exception {
+        if (!cached) {
+            teamInfoCache.invalidateAll();
+            memberDirectoryCache.invalidateAll();
+        }
+        MvcResult started = mockMvc.perform(get("/dashboard").with(authentication(adminAuthentication)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.dropbox.benchmark;
+
+import com.example.dropbox.DropboxApplication;
+import com.example.dropbox.support.MockDropboxServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the OAuth login and {@code /dashboard} flow against {@link MockDropboxServer}.
+ * Each simulated admin signs in through the real authorization-code redirect dance, then requests the
+ * dashboard back to back until the run ends. The report gives throughput, p50/p90/p99 latency and the
+ * calls that reached the fake Dropbox.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.example.dropbox.benchmark.DashboardLoadTest \
+ *     -Dbenchmark.args="--users=200 --duration=30s --latency=80ms --virtual-threads=true"
+ * </pre>
+ *
+ * Options: {@code users}, {@code admins}, {@code duration}, {@code warmup}, {@code latency},
+ * {@code error-rate}, {@code rate-limit}, {@code members}, {@code events}, {@code virtual-threads} and
+ * {@code conditional} (send the last ETag as {@code If-None-Match}, like a browser refreshing the page).
+ * Any other {@code --key=value} is passed to the application, e.g.
+ * {@code --api.external.rate-limit.team.permits-per-second=100}.
+ */
+public final class DashboardLoadTest {
+
+    private DashboardLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (OPTIONS.contains(pair[0])) {
+                options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+            } else {
+                appArgs.add(arg);
+            }
+        }
+
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int admins = Integer.parseInt(options.getOrDefault("admins", String.valueOf(users)));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "30s"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "5s"));
+        Duration latency = Duration.ofMillis(Long.parseLong(options.getOrDefault("latency", "50ms").replace("ms", "")));
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        boolean conditional = Boolean.parseBoolean(options.getOrDefault("conditional", "false"));
+
+        try (MockDropboxServer dropbox = new MockDropboxServer()
+                .latency(latency)
+                .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")))
+                .rateLimit(Double.parseDouble(options.getOrDefault("rate-limit", "0")), 1)
+                .admins(admins)
+                .members(Integer.parseInt(options.getOrDefault("members", "1000")))
+                .events(Integer.parseInt(options.getOrDefault("events", "500")))
+                .start()) {
+
+            ConfigurableApplicationContext context = startApplication(dropbox, virtualThreads, appArgs);
+            try {
+                String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                System.out.printf("%nUsers: %d, admins: %d, duration: %s, Dropbox latency: %s, virtual threads: %s, "
+                        + "conditional: %s%n", users, admins, duration, latency, virtualThreads, conditional);
+                run(baseUrl, dropbox, users, warmup, duration, conditional);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static final List<String> OPTIONS = List.of("users", "admins", "duration", "warmup", "latency",
+            "error-rate", "rate-limit", "members", "events", "virtual-threads", "conditional");
+
+    private static ConfigurableApplicationContext startApplication(MockDropboxServer dropbox, boolean virtualThreads,
+                                                                   List<String> extraArgs) {
+        String provider = "spring.security.oauth2.client.provider.dbx.";
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put(provider + "authorization-uri", dropbox.baseUrl() + "/oauth2/authorize");
+        properties.put(provider + "token-uri", dropbox.baseUrl() + "/oauth2/token");
+        properties.put(provider + "user-info-uri", dropbox.baseUrl() + "/2/team/token/get_authenticated_admin");
+        properties.put("api.external.base-url", dropbox.baseUrl());
+        properties.put("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        properties.put("session.store.type", "memory");
+        properties.put("events.ingestion.initial-delay", "1s");
+        properties.put("EXTERNAL_API_CLIENT_ID", "load-test");
+        properties.put("EXTERNAL_API_CLIENT_SECRET", "load-test");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.example.dropbox", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.put("logging.level.org.springframework.web.client", "WARN");
+        for (String arg : extraArgs) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            properties.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+
+        // Passed as arguments rather than default properties so they win over application.yaml.
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(DropboxApplication.class).run(args);
+    }
+
+    private static void run(String baseUrl, MockDropboxServer dropbox, int users, Duration warmup, Duration duration,
+                            boolean conditional) throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newCachedThreadPool();
+        ExecutorService userThreads = Executors.newFixedThreadPool(users);
+        Recorder logins = new Recorder();
+        Recorder dashboards = new Recorder();
+        AtomicLong notModified = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        CountDownLatch loggedIn = new CountDownLatch(users);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(users);
+        // Warmup and measurement start once every user is signed in, so slow logins don't eat the window.
+        long[] window = new long[2];
+
+        for (int i = 0; i < users; i++) {
+            userThreads.execute(() -> {
+                HttpClient client = HttpClient.newBuilder()
+                        .cookieHandler(new CookieManager())
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .executor(clientExecutor)
+                        .build();
+                try {
+                    long started = System.nanoTime();
+                    boolean ok = get(client, baseUrl + "/oauth2/authorization/dbx");
+                    logins.record(System.nanoTime() - started, ok);
+                    loggedIn.countDown();
+                    go.await();
+
+                    String etag = null;
+                    while (System.nanoTime() < window[1]) {
+                        long requestStarted = System.nanoTime();
+                        HttpResponse<String> response = send(client, baseUrl + "/dashboard", conditional ? etag : null);
+                        boolean success = isDashboard(response)
+                                || (response != null && response.statusCode() == 304);
+                        if (response != null) {
+                            etag = response.headers().firstValue("ETag").orElse(etag);
+                        }
+                        if (requestStarted >= window[0]) {
+                            dashboards.record(System.nanoTime() - requestStarted, success);
+                            if (response != null && response.statusCode() == 304) {
+                                notModified.incrementAndGet();
+                            }
+                            if (response != null) {
+                                bytes.addAndGet(response.body().length());
+                            }
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    loggedIn.countDown();
+                    done.countDown();
+                }
+            });
+        }
+
+        loggedIn.await();
+        window[0] = System.nanoTime() + warmup.toNanos();
+        window[1] = window[0] + duration.toNanos();
+        go.countDown();
+        long dropboxCallsAtStart = dropbox.requestCount();
+        done.await();
+        userThreads.shutdown();
+        clientExecutor.shutdown();
+
+        logins.report("Login", null);
+        dashboards.report("Dashboard", duration);
+        System.out.printf("Not modified (304): %d, body characters: %d%n", notModified.get(), bytes.get());
+        System.out.printf("Dropbox calls during the dashboard phase: %d (get_info %d, members/list %d, get_events %d)%n",
+                dropbox.requestCount() - dropboxCallsAtStart,
+                dropbox.requestCount("/2/team/get_info"),
+                dropbox.requestCount("/2/team/members/list"),
+                dropbox.requestCount("/2/team_log/get_events"));
+    }
+
+    // The first dashboard after login usually streams its sections, so only the page itself is checked.
+    private static boolean get(HttpClient client, String url) {
+        HttpResponse<String> response = send(client, url, null);
+        return response != null && response.statusCode() == 200;
+    }
+
+    // A page only counts as successful if it actually rendered team data.
+    private static boolean isDashboard(HttpResponse<String> response) {
+        return response != null && response.statusCode() == 200 && response.body().contains("Example Team");
+    }
+
+    private static HttpResponse<String> send(HttpClient client, String url, String ifNoneMatch) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static final class Recorder {
+
+        private long[] samples = new long[1 << 16];
+        private int count;
+        private final AtomicLong failures = new AtomicLong();
+
+        synchronized void record(long nanos, boolean success) {
+            if (!success) {
+                failures.incrementAndGet();
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        synchronized void report(String name, Duration window) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            String throughput = window != null
+                    ? String.format(", %.1f req/s", count / (window.toNanos() / 1e9))
+                    : "";
+            System.out.printf("%-9s %7d requests, %d failed%s | p50 %6.1f ms  p90 %6.1f ms  p99 %6.1f ms  max %6.1f ms%n",
+                    name, count, failures.get(), throughput,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+}
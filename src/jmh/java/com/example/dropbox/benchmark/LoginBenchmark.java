@@ -0,0 +1,106 @@
+package com.example.dropbox.benchmark;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.service.impl.DropboxOAuth2UserService;
+import com.example.dropbox.utils.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DropboxOAuth2UserService#loadUser} against a canned get_authenticated_admin response, so the
+ * numbers cover request assembly, response parsing and principal creation without network time.
+ * {@code loadUserUncached} uses a fresh token per call; {@code loadUserCached} repeats a known account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final byte[] ADMIN_JSON = """
+            {"admin_profile": {"team_member_id": "dbmid:AAHhy7WsR0x-u4ZCqiDl5Fz5zvuL3kmspwU",
+              "account_id": "dbid:AAH4f99T0taONIb-OurWxbNQ6ywGRopQngc", "email": "admin@example.com",
+              "email_verified": true, "secondary_emails": [], "status": {".tag": "active"},
+              "name": {"abbreviated_name": "FF", "display_name": "Franz Ferdinand (Personal)",
+                       "familiar_name": "Franz", "given_name": "Franz", "surname": "Ferdinand"},
+              "membership_type": {".tag": "full"}, "groups": ["g:e2db7665347abcd600000000001a2b3c"],
+              "member_folder_id": "20", "joined_on": "2015-05-12T15:50:38Z"}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private DropboxOAuth2UserService userService;
+    private ClientRegistration registration;
+    private OAuth2UserRequest repeatRequest;
+
+    @Setup
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(new MockClientHttpResponse(ADMIN_JSON, HttpStatus.OK));
+            return request;
+        });
+        RefreshingCache<String, DropboxAdminPrincipal> cache =
+                new RefreshingCache<>("admin-profile", Duration.ofMinutes(5), Duration.ZERO, 1024, Runnable::run);
+        userService = new DropboxOAuth2UserService(restTemplate, cache,
+                new RefreshingCache<>("admin-principal-keys", Duration.ofMinutes(5), Duration.ZERO, 1024, Runnable::run));
+
+        registration = ClientRegistration.withRegistrationId("dbx")
+                .clientId("benchmark")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("https://www.dropbox.com/oauth2/authorize")
+                .tokenUri("https://api.dropboxapi.com/oauth2/token")
+                .userInfoUri("https://api.dropboxapi.com/2/team/token/get_authenticated_admin")
+                .userNameAttributeName(Constants.TEAM_MEMBER_ID_ATTR)
+                .build();
+        repeatRequest = userRequest("repeat-token", Map.of(
+                Constants.TEAM_ID_KEY, "dbtid:benchmark",
+                Constants.ACCOUNT_ID_KEY, "dbid:benchmark"));
+    }
+
+    @Benchmark
+    public OAuth2User loadUserUncached() {
+        return userService.loadUser(userRequest("token-" + tokens.incrementAndGet(),
+                Map.of(Constants.TEAM_ID_KEY, "dbtid:benchmark")));
+    }
+
+    @Benchmark
+    public OAuth2User loadUserCached() {
+        return userService.loadUser(repeatRequest);
+    }
+
+    private OAuth2UserRequest userRequest(String tokenValue, Map<String, Object> additionalParameters) {
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                tokenValue, now, now.plusSeconds(14400));
+        return new OAuth2UserRequest(registration, accessToken, additionalParameters);
+    }
+}
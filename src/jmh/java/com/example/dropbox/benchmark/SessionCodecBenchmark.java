@@ -0,0 +1,115 @@
+package com.example.dropbox.benchmark;
+
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.session.SessionCodec;
+import com.example.dropbox.utils.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.session.MapSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storing a signed-in admin session with {@link SessionCodec}, against Java serialization of the
+ * security context the session held before {@link DropboxAdminPrincipal}. The bytes per session of
+ * both are printed once at setup; {@code -prof gc} adds the allocation per encode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionCodecBenchmark {
+
+    private static final String CONTEXT_KEY = "SPRING_SECURITY_CONTEXT";
+
+    private MapSession session;
+    private byte[] encoded;
+    private SecurityContextImpl previousContext;
+
+    @Setup
+    public void setUp() throws IOException {
+        DropboxAdminPrincipal principal =
+                new DropboxAdminPrincipal("dbmid:admin", "admin@example.com", "Admin User", "dbtid:team");
+        OAuth2AuthenticationToken token = new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "dbx");
+        token.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-id"));
+
+        session = new MapSession();
+        session.setCreationTime(Instant.parse("2024-01-01T00:00:00Z"));
+        session.setLastAccessedTime(Instant.parse("2024-01-01T00:05:00Z"));
+        session.setMaxInactiveInterval(Duration.ofMinutes(30));
+        session.setAttribute(CONTEXT_KEY, new SecurityContextImpl(token));
+        session.setAttribute("locale", "en");
+        encoded = SessionCodec.encode(session);
+        previousContext = previousContext();
+
+        System.out.printf("Bytes per session: compact=%d, java-serialized context=%d%n",
+                encoded.length, javaSerialized().length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return SessionCodec.encode(session);
+    }
+
+    @Benchmark
+    public MapSession decode() {
+        return SessionCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] javaSerialized() throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(previousContext);
+        }
+        return serialized.toByteArray();
+    }
+
+    // The context as it was stored before: the raw admin profile and user attributes on a DefaultOAuth2User.
+    private static SecurityContextImpl previousContext() {
+        Map<String, Object> adminProfile = Map.of(
+                "team_member_id", "dbmid:admin",
+                "email", "admin@example.com",
+                "account_id", "dbid:AAH4f99T0taONIb-OurWxbNQ6ywGRopQngc",
+                "status", Map.of(".tag", "active"),
+                "membership_type", Map.of(".tag", "full"),
+                "name", Map.of("given_name", "Admin", "surname", "User",
+                        "familiar_name", "Admin", "display_name", "Admin User", "abbreviated_name", "AU"),
+                "groups", List.of("g:1234567890abcdef", "g:fedcba0987654321"));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(Constants.ADMIN_PROFILE_KEY, adminProfile);
+        attributes.put(Constants.TEAM_MEMBER_ID_ATTR, "dbmid:admin");
+        attributes.put(Constants.EMAIL_ATTR, "admin@example.com");
+        attributes.put(Constants.DISPLAY_NAME_ATTR, "Admin User");
+        attributes.put(Constants.TEAM_ID_KEY, "dbtid:team");
+        DefaultOAuth2User previous = new DefaultOAuth2User(
+                AuthorityUtils.createAuthorityList(Constants.ROLE_ADMIN), attributes, Constants.TEAM_MEMBER_ID_ATTR);
+        OAuth2AuthenticationToken previousToken =
+                new OAuth2AuthenticationToken(previous, previous.getAuthorities(), "dbx");
+        previousToken.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-id"));
+        return new SecurityContextImpl(previousToken);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.dropbox.benchmark;
+
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.support.MockDropboxServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a get_info response into {@link TeamInfoDTO}, both with a plain {@link ObjectMapper} and
+ * through the {@link Jackson2JsonDecoder} the WebClient uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamInfoDecodeBenchmark {
+
+    private static final ResolvableType TEAM_INFO_TYPE = ResolvableType.forClass(TeamInfoDTO.class);
+
+    private byte[] json;
+    private ObjectMapper objectMapper;
+    private Jackson2JsonDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        json = MockDropboxServer.TEAM_INFO_JSON.getBytes(StandardCharsets.UTF_8);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        decoder = new Jackson2JsonDecoder(objectMapper);
+    }
+
+    @Benchmark
+    public TeamInfoDTO objectMapper() throws IOException {
+        return objectMapper.readValue(json, TeamInfoDTO.class);
+    }
+
+    @Benchmark
+    public Object webClientDecoder() {
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(json);
+        return decoder.decodeToMono(Flux.just(buffer), TEAM_INFO_TYPE, null, Map.of()).block();
+    }
+}
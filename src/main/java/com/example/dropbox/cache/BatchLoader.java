@@ -0,0 +1,162 @@
+package com.example.dropbox.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects the keys requested within a short window per partition (e.g. team) and loads them with one
+ * batch call. A batch is sent once {@code window} has passed since its first key, or as soon as it
+ * holds {@code maxBatchSize} keys, and each caller gets the value for its own key back, or null if the
+ * result has none. A key requested twice while its batch is open is sent once. The batch runs with the
+ * call given by the caller that opened it.
+ */
+public class BatchLoader<K, V> implements MeterBinder {
+
+    private final String name;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+
+    private final ConcurrentMap<String, Batch> open = new ConcurrentHashMap<>();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    public BatchLoader(String name, Duration window, int maxBatchSize, Scheduler scheduler) {
+        this.name = name;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<V> load(String partition, K key, Function<List<K>, Mono<Map<K, V>>> batchCall) {
+        requests.increment();
+
+        while (true) {
+            Batch batch = open.get(partition);
+            if (batch == null) {
+                Batch created = new Batch(partition, batchCall);
+                batch = open.putIfAbsent(partition, created);
+                if (batch == null) {
+                    batch = created;
+                    scheduler.schedule(() -> dispatch(created), windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            // Null once the batch has been closed; the next round opens a new one.
+            Waiter<V> waiter = batch.add(key);
+            if (waiter != null) {
+                if (waiter.filled()) {
+                    send(batch);
+                }
+                return waiter.future();
+            }
+        }
+    }
+
+    public int openBatches() {
+        return open.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("batchloader.requests", requests, LongAdder::sum)
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("batchloader.batches", batches, LongAdder::sum)
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("batchloader.keys", keys, LongAdder::sum)
+                .tag("name", name)
+                .description("Distinct keys sent in batches")
+                .register(registry);
+        Gauge.builder("batchloader.open", open, ConcurrentMap::size)
+                .tag("name", name)
+                .register(registry);
+    }
+
+    // Sends a batch once its window has passed, unless it filled up and was sent already.
+    private void dispatch(Batch batch) {
+        // Removed before it is closed, so a caller that finds it closed always finds a new batch next.
+        open.remove(batch.partition, batch);
+        if (batch.close()) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        open.remove(batch.partition, batch);
+        Map<K, CompletableFuture<V>> waiters = batch.waiters;
+        if (waiters.isEmpty()) {
+            return;
+        }
+
+        batches.increment();
+        keys.add(waiters.size());
+
+        Mono<Map<K, V>> result;
+        try {
+            result = batch.call.apply(List.copyOf(waiters.keySet()));
+        } catch (RuntimeException ex) {
+            result = Mono.error(ex);
+        }
+
+        result.subscribe(
+                values -> waiters.forEach((key, future) -> future.complete(values.get(key))),
+                error -> waiters.values().forEach(future -> future.completeExceptionally(error)),
+                () -> waiters.values().forEach(future -> future.complete(null)));
+    }
+
+    private final class Batch {
+
+        private final String partition;
+        private final Function<List<K>, Mono<Map<K, V>>> call;
+        private final Map<K, CompletableFuture<V>> waiters = new LinkedHashMap<>();
+        private boolean closed;
+
+        private Batch(String partition, Function<List<K>, Mono<Map<K, V>>> call) {
+            this.partition = partition;
+            this.call = call;
+        }
+
+        // The key that fills the batch closes it under the same lock, so no batch exceeds maxBatchSize
+        // and exactly one caller is told to send it.
+        private synchronized Waiter<V> add(K key) {
+            if (closed) {
+                return null;
+            }
+            CompletableFuture<V> future = waiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (waiters.size() >= maxBatchSize) {
+                closed = true;
+                return new Waiter<>(future, true);
+            }
+            return new Waiter<>(future, false);
+        }
+
+        private synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+    }
+
+    private record Waiter<V>(CompletableFuture<V> future, boolean filled) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.dropbox.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rendered Thymeleaf fragments per partition (e.g. team). An entry is reused for as long as the
+ * variables it was rendered from are equal to the current ones, so a change in the underlying data
+ * re-renders just that fragment. Each fragment carries a digest of its markup for building ETags.
+ * Each partition holds at most {@code maxPartitionSize} fragments, so no partition can evict the
+ * others' fragments by itself.
+ */
+public class FragmentCache implements MeterBinder {
+
+    private final String name;
+    private final ITemplateEngine templateEngine;
+    private final String template;
+    private final PartitionedLru<String, Fragment> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FragmentCache(String name, ITemplateEngine templateEngine, String template, int maxSize) {
+        this(name, templateEngine, template, maxSize, maxSize);
+    }
+
+    public FragmentCache(String name, ITemplateEngine templateEngine, String template, int maxSize,
+                         int maxPartitionSize) {
+        this.name = name;
+        this.templateEngine = templateEngine;
+        this.template = template;
+        this.entries = new PartitionedLru<>(maxSize, key -> key.substring(0, key.lastIndexOf('|')),
+                maxPartitionSize, evictions);
+    }
+
+    /**
+     * Returns the fragment rendered from {@code variables}, rendering it only if the cached copy was
+     * rendered from different variables. The map must not be modified afterwards.
+     */
+    public Fragment render(String partition, String fragment, Map<String, Object> variables) {
+        String key = partition + "|" + fragment;
+        Fragment cached = entries.get(key);
+        if (cached != null && cached.variables().equals(variables)) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        String html = templateEngine.process(template, Set.of(fragment), new Context(Locale.getDefault(), variables));
+        Fragment rendered = new Fragment(html, digest(html), variables);
+        entries.put(key, rendered);
+        return rendered;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", entries, PartitionedLru::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    /**
+     * Short, URL-safe SHA-256 digest of the given parts, e.g. to combine fragment digests into an ETag.
+     */
+    public static String digest(String... parts) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                sha256.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) 0);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256.digest()).substring(0, 22);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public record Fragment(String html, String digest, Map<String, Object> variables) {
+    }
+}
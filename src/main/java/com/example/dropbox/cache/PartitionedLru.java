@@ -0,0 +1,126 @@
+package com.example.dropbox.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Access-ordered LRU map with an overall size bound and, when a partitioner is given, a bound per
+ * partition (e.g. team). A partition that reaches its bound evicts its own least recently used entry,
+ * so one large partition can't push the entries of the others out. Thread-safe.
+ */
+final class PartitionedLru<K, V> {
+
+    private final int maxPartitionSize;
+    private final Function<? super K, String> partitioner;
+    private final LongAdder evictions;
+
+    private final LinkedHashMap<K, V> entries;
+    private final Map<String, LinkedHashMap<K, Boolean>> partitions = new HashMap<>();
+
+    PartitionedLru(int maxSize, Function<? super K, String> partitioner, int maxPartitionSize, LongAdder evictions) {
+        this.maxPartitionSize = maxPartitionSize;
+        this.partitioner = partitioner;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    forget(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            touch(key);
+        }
+        return value;
+    }
+
+    synchronized void put(K key, V value) {
+        boolean added = entries.put(key, value) == null;
+        if (added) {
+            remember(key);
+        } else {
+            touch(key);
+        }
+    }
+
+    synchronized void putIfAbsent(K key, V value) {
+        if (!entries.containsKey(key)) {
+            put(key, value);
+        }
+    }
+
+    synchronized void computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        if (entries.computeIfPresent(key, remapping) == null) {
+            forget(key);
+        }
+    }
+
+    synchronized void remove(K key) {
+        if (entries.remove(key) != null) {
+            forget(key);
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        partitions.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized int partitionSize(String partition) {
+        LinkedHashMap<K, Boolean> keys = partitions.get(partition);
+        return keys != null ? keys.size() : 0;
+    }
+
+    private void remember(K key) {
+        if (partitioner == null) {
+            return;
+        }
+        LinkedHashMap<K, Boolean> keys = partitions.computeIfAbsent(partitioner.apply(key),
+                partition -> new LinkedHashMap<>(16, 0.75f, true));
+        keys.put(key, Boolean.TRUE);
+        if (keys.size() > maxPartitionSize) {
+            Iterator<K> eldest = keys.keySet().iterator();
+            K evicted = eldest.next();
+            eldest.remove();
+            entries.remove(evicted);
+            evictions.increment();
+        }
+    }
+
+    private void touch(K key) {
+        if (partitioner != null) {
+            LinkedHashMap<K, Boolean> keys = partitions.get(partitioner.apply(key));
+            if (keys != null) {
+                keys.get(key);
+            }
+        }
+    }
+
+    private void forget(K key) {
+        if (partitioner == null) {
+            return;
+        }
+        String partition = partitioner.apply(key);
+        LinkedHashMap<K, Boolean> keys = partitions.get(partition);
+        if (keys != null && keys.remove(key) != null && keys.isEmpty()) {
+            partitions.remove(partition);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.dropbox.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache with a freshness TTL. Entries older than the TTL but within {@code maxStale}
+ * are still served while a single background refresh runs; concurrent loads of the same key share
+ * one loader invocation. A cache given a partitioner also bounds each partition (e.g. team) to
+ * {@code maxPartitionSize} entries, so a large tenant evicts its own entries rather than everyone's.
+ */
+@Slf4j
+public class RefreshingCache<K, V> implements MeterBinder {
+
+    private final String name;
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+
+    private final PartitionedLru<K, CacheEntry<V>> entries;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile LoadListener<K, V> loadListener;
+
+    public RefreshingCache(String name, Duration ttl, Duration maxStale, int maxSize, Executor refreshExecutor) {
+        this(name, ttl, maxStale, maxSize, null, maxSize, refreshExecutor, System::currentTimeMillis);
+    }
+
+    public RefreshingCache(String name, Duration ttl, Duration maxStale, int maxSize,
+                           Function<? super K, String> partitioner, int maxPartitionSize, Executor refreshExecutor) {
+        this(name, ttl, maxStale, maxSize, partitioner, maxPartitionSize, refreshExecutor, System::currentTimeMillis);
+    }
+
+    RefreshingCache(String name, Duration ttl, Duration maxStale, int maxSize,
+                    Executor refreshExecutor, LongSupplier clock) {
+        this(name, ttl, maxStale, maxSize, null, maxSize, refreshExecutor, clock);
+    }
+
+    RefreshingCache(String name, Duration ttl, Duration maxStale, int maxSize,
+                    Function<? super K, String> partitioner, int maxPartitionSize,
+                    Executor refreshExecutor, LongSupplier clock) {
+        this.name = name;
+        this.ttlMillis = ttl.toMillis();
+        this.maxStaleMillis = maxStale.toMillis();
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.entries = new PartitionedLru<>(maxSize, partitioner, maxPartitionSize, evictions);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        CacheEntry<V> entry = entries.get(key);
+
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.loadedAt();
+            if (age <= ttlMillis) {
+                hits.increment();
+                return entry.value();
+            }
+            if (age <= ttlMillis + maxStaleMillis) {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+                return entry.value();
+            }
+        }
+
+        misses.increment();
+        return load(key, loader);
+    }
+
+    public CompletableFuture<V> getAsync(K key, Function<? super K, CompletableFuture<V>> loader) {
+        CacheEntry<V> entry = entries.get(key);
+
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.loadedAt();
+            if (age <= ttlMillis) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value());
+            }
+            if (age <= ttlMillis + maxStaleMillis) {
+                staleHits.increment();
+                refreshAsync(key, loader);
+                return CompletableFuture.completedFuture(entry.value());
+            }
+        }
+
+        misses.increment();
+        return loadAsync(key, loader);
+    }
+
+    public V getIfPresent(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    public void put(K key, V value) {
+        if (value != null) {
+            long loadedAt = clock.getAsLong();
+            entries.put(key, new CacheEntry<>(value, loadedAt));
+            LoadListener<K, V> listener = loadListener;
+            if (listener != null) {
+                listener.loaded(key, value, loadedAt);
+            }
+        }
+    }
+
+    /**
+     * Seeds an entry loaded earlier, e.g. from a snapshot, keeping its original load time so the usual
+     * TTL and stale rules decide whether it is served as is or refreshed. An existing entry wins.
+     */
+    public void restore(K key, V value, long loadedAt) {
+        if (value != null) {
+            entries.putIfAbsent(key, new CacheEntry<>(value, loadedAt));
+        }
+    }
+
+    // Called with every loaded or refreshed value, not with restored ones.
+    public void setLoadListener(LoadListener<K, V> loadListener) {
+        this.loadListener = loadListener;
+    }
+
+    /**
+     * Marks an entry as past its TTL without dropping it, so the next read still gets the current value
+     * at once and triggers the background refresh, instead of every reader waiting on a fresh load.
+     */
+    public void expire(K key) {
+        long expiredAt = clock.getAsLong() - ttlMillis - 1;
+        entries.computeIfPresent(key, (k, entry) ->
+                new CacheEntry<>(entry.value(), Math.min(entry.loadedAt(), expiredAt)));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int partitionSize(String partition) {
+        return entries.partitionSize(partition);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), staleHits.sum(), misses.sum(),
+                refreshes.sum(), refreshFailures.sum(), evictions.sum());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCounter(registry, "cache.gets", hits, "result", "hit");
+        bindCounter(registry, "cache.gets", staleHits, "result", "stale");
+        bindCounter(registry, "cache.gets", misses, "result", "miss");
+        bindCounter(registry, "cache.refreshes", refreshes, "result", "started");
+        bindCounter(registry, "cache.refreshes", refreshFailures, "result", "failed");
+        bindCounter(registry, "cache.evictions", evictions, null, null);
+        Gauge.builder("cache.size", entries, PartitionedLru::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private void bindCounter(MeterRegistry registry, String meterName, LongAdder counter,
+                             String tagKey, String tagValue) {
+        FunctionCounter.Builder<LongAdder> builder = FunctionCounter.builder(meterName, counter, LongAdder::sum)
+                .tag("cache", name);
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        builder.register(registry);
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = loader.apply(key);
+            put(key, value);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private CompletableFuture<V> loadAsync(K key, Function<? super K, CompletableFuture<V>> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        completeFrom(key, future, loader, false);
+        return future;
+    }
+
+    private void refreshAsync(K key, Function<? super K, CompletableFuture<V>> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+
+        refreshes.increment();
+        completeFrom(key, future, loader, true);
+    }
+
+    private void completeFrom(K key, CompletableFuture<V> future,
+                              Function<? super K, CompletableFuture<V>> loader, boolean refresh) {
+        CompletableFuture<V> source;
+        try {
+            source = loader.apply(key);
+        } catch (RuntimeException ex) {
+            source = CompletableFuture.failedFuture(ex);
+        }
+
+        source.whenComplete((value, error) -> {
+            if (error == null) {
+                put(key, value);
+                inFlight.remove(key, future);
+                future.complete(value);
+                return;
+            }
+            inFlight.remove(key, future);
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (refresh) {
+                refreshFailures.increment();
+                log.warn("Background refresh of {} entry {} failed: {}", name, key, cause.getMessage());
+            }
+            future.completeExceptionally(cause);
+        });
+    }
+
+    private void refreshInBackground(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+
+        refreshes.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = loader.apply(key);
+                    put(key, value);
+                    future.complete(value);
+                } catch (RuntimeException ex) {
+                    refreshFailures.increment();
+                    log.warn("Background refresh of {} entry {} failed: {}", name, key, ex.getMessage());
+                    future.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshFailures.increment();
+            inFlight.remove(key, future);
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record CacheEntry<V>(V value, long loadedAt) {
+    }
+
+    @FunctionalInterface
+    public interface LoadListener<K, V> {
+        void loaded(K key, V value, long loadedAt);
+    }
+
+    public record Stats(long hits, long staleHits, long misses,
+                        long refreshes, long refreshFailures, long evictions) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.dropbox.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares one upstream subscription between concurrent callers of the same key. Nothing is kept once
+ * the call finishes: the next caller after completion starts a new call, so this sits alongside TTL
+ * caching rather than replacing it. The shared call is not cancelled when one caller goes away, since
+ * the other callers are still waiting on it.
+ */
+public class SingleFlight implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Mono<T>[] created = new Mono[1];
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(key, k -> {
+                created[0] = call.get()
+                        .doFinally(signal -> inFlight.remove(k, created[0]))
+                        .share();
+                return created[0];
+            });
+            if (shared == created[0]) {
+                executed.increment();
+            } else {
+                coalesced.increment();
+            }
+            return shared;
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("singleflight.calls", executed, LongAdder::sum)
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("singleflight.calls", coalesced, LongAdder::sum)
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .description("Calls that joined an identical call already in flight")
+                .register(registry);
+        Gauge.builder("singleflight.in.flight", inFlight, ConcurrentMap::size)
+                .tag("name", name)
+                .register(registry);
+    }
+}
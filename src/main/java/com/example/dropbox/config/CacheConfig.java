@@ -0,0 +1,107 @@
+package com.example.dropbox.config;
+
+import com.example.dropbox.cache.BatchLoader;
+import com.example.dropbox.cache.FragmentCache;
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.cache.SingleFlight;
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.ITemplateEngine;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+@Configuration
+public class CacheConfig {
+
+    // Team info and member directories hold a single entry per team, keyed by the team, so each team
+    // is its own one-entry partition and can't take another team's slot.
+    @Bean
+    public RefreshingCache<String, TeamInfoDTO> teamInfoCache(
+            @Value("${api.external.cache.team-info.ttl:10m}") Duration ttl,
+            @Value("${api.external.cache.team-info.max-stale:1h}") Duration maxStale,
+            @Value("${api.external.cache.team-info.max-size:1000}") int maxSize,
+            @Qualifier("applicationTaskExecutor") Executor refreshExecutor) {
+
+        return new RefreshingCache<>("team-info", ttl, maxStale, maxSize, refreshExecutor);
+    }
+
+    @Bean
+    public RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache(
+            @Value("${api.external.cache.members.ttl:30m}") Duration ttl,
+            @Value("${api.external.cache.members.max-stale:6h}") Duration maxStale,
+            @Value("${api.external.cache.members.max-size:50}") int maxSize,
+            @Qualifier("applicationTaskExecutor") Executor refreshExecutor) {
+
+        return new RefreshingCache<>("team-members", ttl, maxStale, maxSize, refreshExecutor);
+    }
+
+    // Single members resolved through members/get_info_v2, keyed "<team>|<member id or email>". Each
+    // team keeps at most max-size-per-team of them, so a large team's lookups only evict its own.
+    @Bean
+    public RefreshingCache<String, TeamMemberDTO> memberInfoCache(
+            @Value("${api.external.cache.member-info.ttl:30m}") Duration ttl,
+            @Value("${api.external.cache.member-info.max-stale:6h}") Duration maxStale,
+            @Value("${api.external.cache.member-info.max-size:50000}") int maxSize,
+            @Value("${api.external.cache.member-info.max-size-per-team:5000}") int maxSizePerTeam,
+            @Qualifier("applicationTaskExecutor") Executor refreshExecutor) {
+
+        return new RefreshingCache<>("member-info", ttl, maxStale, maxSize,
+                key -> key.substring(0, key.indexOf('|')), maxSizePerTeam, refreshExecutor);
+    }
+
+    // Member lookups missing from memberInfoCache, sent per team as one members/get_info_v2 call.
+    @Bean
+    public BatchLoader<String, TeamMemberDTO> memberBatchLoader(
+            @Value("${api.external.member-lookup.window:10ms}") Duration window,
+            @Value("${api.external.member-lookup.batch-size:100}") int batchSize) {
+
+        return new BatchLoader<>("member-lookup", window, batchSize, Schedulers.parallel());
+    }
+
+    // Resolved get_authenticated_admin principals; never served stale so a changed profile shows up
+    // on the next login after the TTL.
+    @Bean
+    public RefreshingCache<String, DropboxAdminPrincipal> adminPrincipalCache(
+            @Value("${api.external.cache.admin-profile.ttl:5m}") Duration ttl,
+            @Value("${api.external.cache.admin-profile.max-size:10000}") int maxSize,
+            @Qualifier("applicationTaskExecutor") Executor refreshExecutor) {
+
+        return new RefreshingCache<>("admin-profile", ttl, Duration.ZERO, maxSize, refreshExecutor);
+    }
+
+    // Principal name to its admin-profile cache key, so logout can evict the entry. Bounded like the
+    // admin-profile cache, since sessions that simply expire never log out.
+    @Bean
+    public RefreshingCache<String, String> adminPrincipalKeyCache(
+            @Value("${api.external.cache.admin-profile.ttl:5m}") Duration ttl,
+            @Value("${api.external.cache.admin-profile.max-size:10000}") int maxSize,
+            @Qualifier("applicationTaskExecutor") Executor refreshExecutor) {
+
+        return new RefreshingCache<>("admin-principal-keys", ttl, Duration.ZERO, maxSize, refreshExecutor);
+    }
+
+    // Joins identical Dropbox calls (same endpoint, team and body) that are in flight at the same time.
+    @Bean
+    public SingleFlight dropboxSingleFlight() {
+        return new SingleFlight("dropbox-api");
+    }
+
+    // Rendered dashboard sections per team, reused until the section's data changes.
+    @Bean
+    public FragmentCache dashboardFragmentCache(
+            ITemplateEngine templateEngine,
+            @Value("${dashboard.fragment-cache.max-size:5000}") int maxSize,
+            @Value("${dashboard.fragment-cache.max-size-per-team:20}") int maxSizePerTeam) {
+
+        return new FragmentCache("dashboard-fragments", templateEngine, "fragments/dashboard-sections", maxSize,
+                maxSizePerTeam);
+    }
+}
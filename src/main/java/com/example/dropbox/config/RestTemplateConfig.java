@@ -1,19 +1,108 @@
 package com.example.dropbox.config;
 
+import com.example.dropbox.metrics.ConnectionAcquireTimer;
+import com.example.dropbox.metrics.DropboxApiMetrics;
+import com.example.dropbox.metrics.MetricsClientHttpRequestInterceptor;
+import com.example.dropbox.throttle.DropboxCallScheduler;
+import com.example.dropbox.throttle.ThrottlingClientHttpRequestInterceptor;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000);
-        factory.setReadTimeout(10000);
+    public PoolingHttpClientConnectionManager restTemplateConnectionManager(
+            @Value("${api.external.http-client.max-total:200}") int maxTotal,
+            @Value("${api.external.http-client.max-per-route:50}") int maxPerRoute,
+            @Value("${api.external.http-client.connect-timeout:10s}") Duration connectTimeout,
+            @Value("${api.external.http-client.read-timeout:10s}") Duration readTimeout,
+            @Value("${api.external.http-client.time-to-live:10m}") Duration timeToLive) {
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        // LIFO reuse keeps the hottest (already TLS-negotiated) connections busy and lets the rest idle out.
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient restTemplateHttpClient(
+            PoolingHttpClientConnectionManager restTemplateConnectionManager,
+            DropboxApiMetrics dropboxApiMetrics,
+            @Value("${api.external.http-client.pool-acquire-timeout:2s}") Duration poolAcquireTimeout,
+            @Value("${api.external.http-client.keep-alive:2m}") Duration keepAlive,
+            @Value("${api.external.http-client.idle-eviction:30s}") Duration idleEviction) {
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                .build();
+
+        ConnectionAcquireTimer acquireTimer = new ConnectionAcquireTimer(dropboxApiMetrics, DropboxApiMetrics.REST_TEMPLATE);
+
+        return HttpClients.custom()
+                .setConnectionManager(restTemplateConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(), "acquire-start", acquireTimer.beforeConnect())
+                .addExecInterceptorAfter(ChainElement.CONNECT.name(), "acquire-stop", acquireTimer.afterConnect())
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient restTemplateHttpClient, DropboxApiMetrics dropboxApiMetrics,
+                                     DropboxCallScheduler dropboxCallScheduler) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(restTemplateHttpClient));
+        restTemplate.getInterceptors().add(new ThrottlingClientHttpRequestInterceptor(dropboxCallScheduler));
+        restTemplate.getInterceptors().add(new MetricsClientHttpRequestInterceptor(dropboxApiMetrics));
+        return restTemplate;
+    }
+
+    @Bean
+    public MeterBinder restTemplatePoolMetrics(PoolingHttpClientConnectionManager restTemplateConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(restTemplateConnectionManager, "dropbox-rest");
+    }
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy(Duration keepAlive) {
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
 
-        return new RestTemplate(factory);
+        return (response, context) -> {
+            TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(advertised) && advertised.compareTo(maxKeepAlive) < 0
+                    ? advertised
+                    : maxKeepAlive;
+        };
     }
 }
@@ -0,0 +1,51 @@
+package com.example.dropbox.config;
+
+import com.example.dropbox.session.BinaryStore;
+import com.example.dropbox.session.CompactOAuth2AuthorizedClientService;
+import com.example.dropbox.session.CompactSessionRepository;
+import com.example.dropbox.session.FileBinaryStore;
+import com.example.dropbox.session.MemoryBinaryStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Sessions and authorized clients are kept as compact binary records instead of Tomcat heap sessions.
+// session.store.type selects "memory" or "file"; file records live under storage.base-dir and survive restarts.
+@Configuration
+@EnableSpringHttpSession
+public class SessionConfig {
+
+    @Bean
+    public CompactSessionRepository sessionRepository(
+            @Value("${session.store.type:memory}") String storeType,
+            @Value("${storage.base-dir:data}") Path storageBaseDir,
+            @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+            @Value("${session.store.touch-interval:60s}") Duration touchInterval) {
+
+        return new CompactSessionRepository(binaryStore(storeType, storageBaseDir.resolve("sessions")),
+                timeout, touchInterval);
+    }
+
+    @Bean
+    public CompactOAuth2AuthorizedClientService authorizedClientService(
+            ClientRegistrationRepository clientRegistrationRepository,
+            @Value("${session.store.type:memory}") String storeType,
+            @Value("${storage.base-dir:data}") Path storageBaseDir) {
+
+        return new CompactOAuth2AuthorizedClientService(clientRegistrationRepository,
+                binaryStore(storeType, storageBaseDir.resolve("authorized-clients")));
+    }
+
+    private static BinaryStore binaryStore(String storeType, Path directory) {
+        return switch (storeType) {
+            case "memory" -> new MemoryBinaryStore();
+            case "file" -> new FileBinaryStore(directory);
+            default -> throw new IllegalArgumentException("Unknown session.store.type: " + storeType);
+        };
+    }
+}
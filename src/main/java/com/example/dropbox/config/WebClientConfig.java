@@ -1,25 +1,140 @@
 package com.example.dropbox.config;
 
+import com.example.dropbox.metrics.DropboxApiMetrics;
+import com.example.dropbox.metrics.MetricsExchangeFilterFunction;
+import com.example.dropbox.tenant.TenantWebClients;
+import com.example.dropbox.throttle.DropboxCallScheduler;
+import com.example.dropbox.throttle.ThrottlingExchangeFilterFunction;
+import com.example.dropbox.token.TokenRefresher;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProvider;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.client.web.reactive.function.client.ServletOAuth2AuthorizedClientExchangeFilterFunction;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.function.Function;
 
 @Configuration
 public class WebClientConfig {
 
-    private static final String CLIENT_REGISTRATION_ID = "dbx";
+    // Service-backed manager so calls made off the request thread (background cache refreshes)
+    // can still resolve and refresh the principal's authorized client. Refreshes normally happen ahead
+    // of time in TokenRefreshScheduler; the inline fallback shares its single-flight refresher.
+    @Bean
+    OAuth2AuthorizedClientManager authorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
+                                                          OAuth2AuthorizedClientService authorizedClientService,
+                                                          TokenRefresher tokenRefresher) {
+        OAuth2AuthorizedClientProvider authorizedClientProvider = OAuth2AuthorizedClientProviderBuilder.builder()
+                .authorizationCode()
+                .provider(tokenRefresher)
+                .build();
+
+        AuthorizedClientServiceOAuth2AuthorizedClientManager authorizedClientManager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrationRepository,
+                        authorizedClientService);
+        authorizedClientManager.setAuthorizedClientProvider(authorizedClientProvider);
+
+        return authorizedClientManager;
+    }
+
+    // Pool metrics, including the pending-acquire wait, are published under
+    // reactor.netty.connection.provider.* with name=dropbox.
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider dropboxConnectionProvider(
+            @Value("${api.external.web-client.max-connections:100}") int maxConnections,
+            @Value("${api.external.web-client.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${api.external.web-client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${api.external.web-client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${api.external.web-client.max-life-time:10m}") Duration maxLifeTime,
+            @Value("${api.external.web-client.evict-in-background:30s}") Duration evictInBackground) {
+
+        return ConnectionProvider.builder("dropbox")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .lifo()
+                .metrics(true)
+                .build();
+    }
 
+    // Shared by the default client and the per-team clients, so they differ only in their pool.
     @Bean
-    WebClient webClient(OAuth2AuthorizedClientManager authorizedClientManager) {
+    Function<ConnectionProvider, ClientHttpConnector> dropboxConnectorFactory(
+            @Value("${api.external.web-client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${api.external.web-client.response-timeout:10s}") Duration responseTimeout) {
+        return connectionProvider -> new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                .compress(true));
+    }
+
+    @Bean
+    WebClient webClient(OAuth2AuthorizedClientManager authorizedClientManager,
+                        ConnectionProvider dropboxConnectionProvider,
+                        Function<ConnectionProvider, ClientHttpConnector> dropboxConnectorFactory,
+                        DropboxApiMetrics dropboxApiMetrics,
+                        DropboxCallScheduler dropboxCallScheduler,
+                        @Value("${api.external.web-client.max-in-memory-size:2MB}") DataSize maxInMemorySize) {
         ServletOAuth2AuthorizedClientExchangeFilterFunction oauth2Client =
                 new ServletOAuth2AuthorizedClientExchangeFilterFunction(authorizedClientManager);
 
-        oauth2Client.setDefaultClientRegistrationId(CLIENT_REGISTRATION_ID);
+        // No fixed registration: each call authorizes with the registration its admin signed in through.
+        oauth2Client.setDefaultOAuth2AuthorizedClient(true);
+
+        ExchangeStrategies exchangeStrategies = ExchangeStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .build();
 
         return WebClient.builder()
+                .clientConnector(dropboxConnectorFactory.apply(dropboxConnectionProvider))
+                .exchangeStrategies(exchangeStrategies)
                 .apply(oauth2Client.oauth2Configuration())
+                .filter(new ThrottlingExchangeFilterFunction(dropboxCallScheduler))
+                .filter(new MetricsExchangeFilterFunction(dropboxApiMetrics))
                 .build();
     }
-}
\ No newline at end of file
+
+    // Each team gets its own, smaller pool on top of the shared client's filters, so one team's
+    // burst of slow calls queues behind its own connections rather than everyone's.
+    @Bean
+    TenantWebClients tenantWebClients(
+            WebClient webClient,
+            Function<ConnectionProvider, ClientHttpConnector> dropboxConnectorFactory,
+            @Value("${api.external.tenant-pool.max-connections:20}") int maxConnections,
+            @Value("${api.external.tenant-pool.pending-acquire-max-count:100}") int pendingAcquireMaxCount,
+            @Value("${api.external.web-client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${api.external.web-client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${api.external.web-client.max-life-time:10m}") Duration maxLifeTime,
+            @Value("${api.external.web-client.evict-in-background:30s}") Duration evictInBackground,
+            @Value("${api.external.tenant-pool.idle-timeout:10m}") Duration idleTimeout) {
+        // No pool metrics here: per-team pools would tag reactor.netty.* meters with every team id.
+        Function<String, ConnectionProvider.Builder> poolBuilder = teamKey -> ConnectionProvider
+                .builder("dropbox-" + teamKey)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .lifo();
+
+        return new TenantWebClients(webClient, poolBuilder, dropboxConnectorFactory, idleTimeout);
+    }
+}
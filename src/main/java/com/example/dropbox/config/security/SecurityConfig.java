@@ -1,5 +1,6 @@
 package com.example.dropbox.config.security;
 
+import com.example.dropbox.service.TeamEventService;
 import com.example.dropbox.service.impl.DropboxOAuth2UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
@@ -7,6 +8,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizationRequestResolver;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestRedirectFilter;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestResolver;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -16,6 +21,8 @@ public class SecurityConfig {
 
     private final DropboxOAuth2UserService dropboxOAuth2UserService;
     private final AuthenticatedUserLoginRedirectFilter authenticatedUserLoginRedirectFilter;
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final TeamEventService teamEventService;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -25,10 +32,15 @@ public class SecurityConfig {
                         .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
                         .requestMatchers("/login").permitAll()
                         .requestMatchers("/oauth2/**", "/login/oauth2/**").permitAll()
+                        // Dropbox calls this without a session; notifications are checked by their signature.
+                        .requestMatchers("/webhooks/dropbox").permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth2 -> oauth2
                         .loginPage("/login")
+                        .authorizationEndpoint(authorization -> authorization
+                                .authorizationRequestResolver(offlineAuthorizationRequestResolver())
+                        )
                         .defaultSuccessUrl("/dashboard", true)
                         .failureUrl("/login?error=true")
                         .userInfoEndpoint(userInfo -> userInfo
@@ -37,9 +49,15 @@ public class SecurityConfig {
                 )
                 .logout(logout -> logout
                         .logoutUrl("/logout")
+                        .addLogoutHandler((request, response, authentication) -> {
+                            if (authentication != null) {
+                                dropboxOAuth2UserService.evictCachedUser(authentication.getName());
+                                teamEventService.untrack(authentication);
+                            }
+                        })
                         .logoutSuccessUrl("/login?logout=true")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID")
+                        .deleteCookies("SESSION")
                 )
                 .formLogin(AbstractHttpConfigurer::disable)
                 .httpBasic(AbstractHttpConfigurer::disable)
@@ -47,4 +65,14 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // Dropbox only issues a refresh token when the authorize request asks for offline access; without it
+    // the short-lived access token cannot be renewed and the admin is sent back to login.
+    private OAuth2AuthorizationRequestResolver offlineAuthorizationRequestResolver() {
+        DefaultOAuth2AuthorizationRequestResolver resolver = new DefaultOAuth2AuthorizationRequestResolver(
+                clientRegistrationRepository, OAuth2AuthorizationRequestRedirectFilter.DEFAULT_AUTHORIZATION_REQUEST_BASE_URI);
+        resolver.setAuthorizationRequestCustomizer(request -> request
+                .additionalParameters(parameters -> parameters.put("token_access_type", "offline")));
+        return resolver;
+    }
 }
@@ -1,51 +1,180 @@
 package com.example.dropbox.controller;
 
+import com.example.dropbox.cache.FragmentCache;
 import com.example.dropbox.dto.AdminProfileDTO;
-import com.example.dropbox.dto.TeamInfoDTO;
-import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.dto.DashboardSectionDTO;
+import com.example.dropbox.service.DashboardAggregationService;
+import com.example.dropbox.service.TeamEventService;
+import com.example.dropbox.utils.SecurityUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.ModelAndView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @Slf4j
 public class DashboardController {
 
+    // Part of every ETag, so a deploy that changes the page layout doesn't answer 304 with the old page.
+    private static final String PAGE_TEMPLATE_DIGEST = templateDigest("templates/dashboard.html");
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final List<String> FRAGMENTS =
+            List.of("teamCards", "memberCounts", "teamDetails", "sharing", "recentActivity");
+
     @Autowired
-    private DropboxAPIService dropboxAPIService;
+    private DashboardAggregationService dashboardAggregationService;
+
+    @Autowired
+    private TeamEventService teamEventService;
+
+    @Autowired
+    private FragmentCache dashboardFragmentCache;
+
+    @Value("${dashboard.inline-wait:150ms}")
+    private Duration inlineWait;
 
     @GetMapping("/dashboard")
-    public String getDashboard(@AuthenticationPrincipal OAuth2User principal, Model model) {
+    public Mono<ModelAndView> getDashboard(@AuthenticationPrincipal OAuth2User principal,
+                                           Authentication authentication,
+                                           ServletWebRequest request) {
 
-        log.info("Loading dashboard for user: {}", principal.getName());
+        log.debug("Loading dashboard for user: {}", principal.getName());
 
         String teamMemberId = principal.getName();
         String email = (String) principal.getAttribute("admin_profile.email");
         String displayName = (String) principal.getAttribute("admin_profile.display_name");
 
-        log.info("Team Member ID: {}, Email: {}, Display Name: {}", teamMemberId, email, displayName);
+        log.debug("Team Member ID: {}, Email: {}, Display Name: {}", teamMemberId, email, displayName);
 
         AdminProfileDTO adminProfile = new AdminProfileDTO(teamMemberId, email, displayName);
+        String teamKey = SecurityUtils.teamKey(authentication);
 
-        TeamInfoDTO teamInfo = null;
-        String errorMessage = null;
+        teamEventService.trackCurrentTeam();
 
-        try {
-            teamInfo = dropboxAPIService.getTeamInfo();
-            log.info("Team info loaded successfully: {}", teamInfo);
-        } catch (Exception e) {
-            errorMessage = "Unable to fetch team information: " + e.getMessage();
-            log.error("Failed to load team info", e);
+        // Sections that are ready within the inline wait (typically cache hits) are rendered into the
+        // page; the rest are left as placeholders that the page fills in from /dashboard/sections.
+        return dashboardAggregationService.streamSections(DashboardAggregationService.SECTIONS)
+                .take(inlineWait)
+                .collectList()
+                .mapNotNull(ready -> {
+                    Map<String, FragmentCache.Fragment> fragments = new HashMap<>();
+                    List<String> lazySections = new ArrayList<>(DashboardAggregationService.SECTIONS);
+                    for (DashboardSectionDTO section : ready) {
+                        fragments.putAll(renderSection(teamKey, section));
+                        lazySections.remove(section.getName());
+                    }
+
+                    if (lazySections.isEmpty()) {
+                        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+                        if (request.checkNotModified(etag(adminProfile, fragments))) {
+                            log.debug("Dashboard unchanged for user: {}", teamMemberId);
+                            return null;
+                        }
+                    } else {
+                        log.debug("Streaming dashboard sections {} for user: {}", lazySections, teamMemberId);
+                    }
+
+                    Map<String, String> html = new HashMap<>();
+                    fragments.forEach((name, fragment) -> html.put(name, fragment.html()));
+
+                    ModelAndView view = new ModelAndView("dashboard");
+                    view.addObject("admin", adminProfile);
+                    view.addObject("sections", html);
+                    view.addObject("lazySections", lazySections);
+                    return view;
+                });
+    }
+
+    /**
+     * Streams the rendered fragments of the requested sections as server-sent events named after the
+     * fragment, in the order the sections finish, followed by a {@code done} event.
+     */
+    @GetMapping(value = "/dashboard/sections", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public Flux<ServerSentEvent<String>> streamSections(@RequestParam List<String> names,
+                                                       Authentication authentication) {
+        String teamKey = SecurityUtils.teamKey(authentication);
+        List<String> sections = names.stream()
+                .filter(DashboardAggregationService.SECTIONS::contains)
+                .toList();
+
+        return dashboardAggregationService.streamSections(sections)
+                .concatMapIterable(section -> renderSection(teamKey, section).entrySet())
+                .map(fragment -> ServerSentEvent.builder(fragment.getValue().html())
+                        .event(fragment.getKey())
+                        .build())
+                .concatWith(Mono.just(ServerSentEvent.builder("").event("done").build()));
+    }
+
+    private Map<String, FragmentCache.Fragment> renderSection(String teamKey, DashboardSectionDTO section) {
+        Object value = section.getValue();
+        String unavailable = section.getUnavailable();
+
+        return switch (section.getName()) {
+            case DashboardAggregationService.TEAM_INFO -> Map.of(
+                    "teamCards", render(teamKey, "teamCards", "teamInfo", value, "error", unavailable),
+                    "teamDetails", render(teamKey, "teamDetails", "teamInfo", value));
+            case DashboardAggregationService.MEMBER_COUNTS -> Map.of(
+                    "memberCounts", render(teamKey, "memberCounts", "memberCounts", value, "placeholder", unavailable));
+            case DashboardAggregationService.SHARING_STATS -> Map.of(
+                    "sharing", render(teamKey, "sharing", "sharingStats", value, "placeholder", unavailable));
+            case DashboardAggregationService.RECENT_EVENTS -> Map.of(
+                    "recentActivity", render(teamKey, "recentActivity", "recentEvents", value, "placeholder", unavailable));
+            default -> Map.of();
+        };
+    }
+
+    private FragmentCache.Fragment render(String teamKey, String fragment, Object... variables) {
+        Map<String, Object> model = new HashMap<>();
+        for (int i = 0; i < variables.length; i += 2) {
+            model.put((String) variables[i], variables[i + 1]);
         }
+        return dashboardFragmentCache.render(teamKey, fragment, model);
+    }
 
-        model.addAttribute("admin", adminProfile);
-        model.addAttribute("teamInfo", teamInfo);
-        model.addAttribute("error", errorMessage);
+    private static String etag(AdminProfileDTO admin, Map<String, FragmentCache.Fragment> fragments) {
+        String[] parts = new String[4 + FRAGMENTS.size()];
+        parts[0] = PAGE_TEMPLATE_DIGEST;
+        parts[1] = admin.getTeamMemberId();
+        parts[2] = admin.getEmail();
+        parts[3] = admin.getDisplayName();
+        for (int i = 0; i < FRAGMENTS.size(); i++) {
+            parts[4 + i] = fragments.get(FRAGMENTS.get(i)).digest();
+        }
+        return FragmentCache.digest(parts);
+    }
 
-        return "dashboard";
+    private static String templateDigest(String path) {
+        try {
+            return FragmentCache.digest(new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read " + path, ex);
+        }
     }
 }
@@ -0,0 +1,111 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.service.TeamExportService;
+import com.example.dropbox.utils.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@Controller
+@Slf4j
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final int MAX_EVENT_DAYS = 365;
+
+    private final TeamExportService teamExportService;
+
+    @GetMapping("/dashboard/export/members")
+    public ResponseEntity<StreamingResponseBody> exportMembers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+
+        TeamExportService.Format exportFormat = parseFormat(format);
+        return stream("team-members", exportFormat, acceptEncoding, authentication,
+                out -> teamExportService.exportMembers(exportFormat, out));
+    }
+
+    @GetMapping("/dashboard/export/events")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+
+        TeamExportService.Format exportFormat = parseFormat(format);
+        Instant since = Instant.now().minus(Duration.ofDays(Math.min(Math.max(days, 1), MAX_EVENT_DAYS)));
+        return stream("team-events", exportFormat, acceptEncoding, authentication,
+                out -> teamExportService.exportEvents(exportFormat, since, out));
+    }
+
+    // The body runs on an async request thread as the requesting admin. Once the first page is written
+    // the status is committed, so a Dropbox failure part-way through can only abort the download.
+    private ResponseEntity<StreamingResponseBody> stream(String name, TeamExportService.Format format,
+                                                         String acceptEncoding, Authentication authentication,
+                                                         Export export) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            long started = System.nanoTime();
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            long rows = SecurityUtils.runAs(authentication, () -> {
+                try {
+                    return export.writeTo(out);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            out.flush();
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+            log.info("Exported {} {} rows as {} in {} ms", rows, name, format,
+                    (System.nanoTime() - started) / 1_000_000);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.mediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + format.extension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private static TeamExportService.Format parseFormat(String format) {
+        try {
+            return TeamExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long writeTo(OutputStream out) throws IOException;
+    }
+}
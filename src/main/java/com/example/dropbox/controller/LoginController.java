@@ -7,6 +7,12 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
@@ -15,12 +21,28 @@ public class LoginController {
     private ClientRegistrationRepository clientRegistrationRepository;
 
 
+    // Every configured registration is a tenant's Dropbox app; ?tenant= picks one directly.
     @GetMapping("/login")
-    public String getLoginPage(Model model) {
-        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId("dbx");
-        String authorizationUri = "/oauth2/authorization/" + registration.getRegistrationId();
+    public String getLoginPage(@RequestParam(name = "tenant", required = false) String tenant, Model model) {
+        List<ClientRegistration> registrations = new ArrayList<>();
+        if (tenant != null) {
+            ClientRegistration registration = clientRegistrationRepository.findByRegistrationId(tenant);
+            if (registration != null) {
+                registrations.add(registration);
+            }
+        } else if (clientRegistrationRepository instanceof Iterable<?> iterable) {
+            iterable.forEach(registration -> registrations.add((ClientRegistration) registration));
+        }
+
+        // Keyed by registration id: client names are display text and two tenants' apps may share one.
+        Map<String, String> clientNames = new LinkedHashMap<>();
+        registrations.forEach(registration ->
+                clientNames.put(registration.getRegistrationId(), registration.getClientName()));
 
-        model.addAttribute("authorizationUri", authorizationUri);
+        model.addAttribute("clientNames", clientNames);
+        if (clientNames.size() == 1) {
+            model.addAttribute("authorizationUri", "/oauth2/authorization/" + clientNames.keySet().iterator().next());
+        }
 
         return "login";
     }
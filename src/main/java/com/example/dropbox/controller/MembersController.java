@@ -0,0 +1,48 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.service.MemberDirectoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
+
+@Controller
+@Slf4j
+@RequiredArgsConstructor
+public class MembersController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final MemberDirectoryService memberDirectoryService;
+
+    @GetMapping("/dashboard/members")
+    public Mono<String> getMembers(@RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "50") int size,
+                                   @RequestParam(name = "q", required = false) String query,
+                                   Model model) {
+
+        int pageIndex = Math.max(page, 0);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        model.addAttribute("query", query);
+        model.addAttribute("membersPage", null);
+        model.addAttribute("error", null);
+
+        return memberDirectoryService.getDirectory()
+                .doOnNext(directory -> {
+                    TeamMemberDirectory.Page membersPage = directory.search(query, pageIndex, pageSize);
+                    model.addAttribute("membersPage", membersPage);
+                    model.addAttribute("totalMembers", directory.size());
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to load team members", e);
+                    model.addAttribute("error", "Unable to fetch team members: " + e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn("members");
+    }
+}
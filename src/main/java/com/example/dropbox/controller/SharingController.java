@@ -0,0 +1,91 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.directory.SharingInventory;
+import com.example.dropbox.dto.SharingCrawlStatusDTO;
+import com.example.dropbox.dto.SharingEntryDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.SharingInventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Controller
+@Slf4j
+@RequiredArgsConstructor
+public class SharingController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Set<String> KINDS = Set.of(SharingEntryDTO.FOLDER, SharingEntryDTO.LINK);
+    private static final Duration MEMBER_NAMES_DEADLINE = Duration.ofSeconds(2);
+
+    private final SharingInventoryService sharingInventoryService;
+    private final DropboxAPIService dropboxAPIService;
+
+    @GetMapping("/dashboard/sharing")
+    public Mono<String> getSharing(@RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "50") int size,
+                                   @RequestParam(name = "q", required = false) String query,
+                                   @RequestParam(required = false) String kind,
+                                   Model model) {
+
+        int pageIndex = Math.max(page, 0);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String kindFilter = kind != null && KINDS.contains(kind) ? kind : null;
+
+        SharingCrawlStatusDTO status = sharingInventoryService.getStatus();
+        Optional<SharingInventory> inventory = sharingInventoryService.getInventory();
+
+        model.addAttribute("status", status);
+        model.addAttribute("running", SharingCrawlStatusDTO.RUNNING.equals(status.getState()));
+        model.addAttribute("query", query);
+        model.addAttribute("kind", kindFilter);
+        model.addAttribute("inventory", inventory.orElse(null));
+        SharingInventory.Page entriesPage = inventory
+                .map(index -> index.search(query, kindFilter, pageIndex, pageSize))
+                .orElse(null);
+        model.addAttribute("entriesPage", entriesPage);
+        model.addAttribute("memberNames", Map.of());
+
+        if (entriesPage == null || entriesPage.entries().isEmpty()) {
+            return Mono.just("sharing");
+        }
+
+        // Names are a nicety: without them the page shows team member ids.
+        Set<String> teamMemberIds = entriesPage.entries().stream()
+                .map(SharingEntryDTO::getTeamMemberId)
+                .collect(Collectors.toSet());
+        return dropboxAPIService.getMembers(teamMemberIds)
+                .timeout(MEMBER_NAMES_DEADLINE)
+                .doOnNext(members -> model.addAttribute("memberNames", displayNames(members)))
+                .onErrorResume(e -> {
+                    log.warn("Failed to resolve member names: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn("sharing");
+    }
+
+    @PostMapping("/dashboard/sharing/crawl")
+    public String startCrawl() {
+        SharingCrawlStatusDTO status = sharingInventoryService.startCrawl();
+        log.info("Sharing crawl {}", status.getState());
+        return "redirect:/dashboard/sharing";
+    }
+
+    private static Map<String, String> displayNames(Map<String, TeamMemberDTO> members) {
+        return members.entrySet().stream()
+                .filter(member -> member.getValue().getDisplayName() != null)
+                .collect(Collectors.toMap(Map.Entry::getKey, member -> member.getValue().getDisplayName()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.security.WebhookSignatureVerifier;
+import com.example.dropbox.service.TeamRefreshService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dropbox webhook endpoint. Dropbox expects a reply within seconds and retries otherwise, so a
+ * notification is only verified and queued here; the refresh itself runs later in
+ * {@link TeamRefreshService}.
+ */
+@Controller
+@Slf4j
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private static final String SIGNATURE_HEADER = "X-Dropbox-Signature";
+
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final TeamRefreshService teamRefreshService;
+    private final ObjectMapper objectMapper;
+
+    // Verification request sent when the webhook URI is registered in the App Console.
+    @GetMapping("/webhooks/dropbox")
+    public ResponseEntity<String> verify(@RequestParam String challenge) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_PLAIN)
+                .header("X-Content-Type-Options", "nosniff")
+                .body(challenge);
+    }
+
+    @PostMapping("/webhooks/dropbox")
+    public ResponseEntity<Void> receive(@RequestBody(required = false) byte[] body,
+                                        @RequestHeader(value = SIGNATURE_HEADER, required = false) String signature) {
+        byte[] payload = body != null ? body : new byte[0];
+
+        if (!signatureVerifier.verify(payload, signature)) {
+            log.warn("Rejected webhook notification with a missing or invalid signature");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        JsonNode notification;
+        try {
+            notification = objectMapper.readTree(payload);
+        } catch (IOException ex) {
+            log.warn("Rejected malformed webhook notification: {}", ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Team apps get {"list_folder": {"teams": {team_id: [team_member_id, ...]}}}, and the same
+        // under "delta" from the older API.
+        enqueueTeams(notification.path("list_folder").path("teams"));
+        enqueueTeams(notification.path("delta").path("teams"));
+        return ResponseEntity.ok().build();
+    }
+
+    private void enqueueTeams(JsonNode teams) {
+        teams.properties().forEach(team -> {
+            List<String> members = new ArrayList<>();
+            team.getValue().forEach(member -> members.add(member.asText()));
+            teamRefreshService.enqueue(team.getKey(), members);
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.dropbox.directory;
+
+import com.example.dropbox.dto.SharingEntryDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable index of a team's shared folders and shared links, as found by the last complete crawl.
+ * Totals are computed once when the index is built; folders shared with several members count once.
+ */
+public final class SharingInventory {
+
+    private static final String PUBLIC = "public";
+
+    private final List<SharingEntryDTO> entries;
+    private final int membersCrawled;
+    private final Instant crawledAt;
+    private final int sharedFolders;
+    private final int sharedLinks;
+    private final int publicLinks;
+    private final int membersSharing;
+
+    public SharingInventory(List<SharingEntryDTO> entries, int membersCrawled, Instant crawledAt) {
+        this.entries = List.copyOf(entries);
+        this.membersCrawled = membersCrawled;
+        this.crawledAt = crawledAt;
+
+        Set<String> folderIds = new HashSet<>();
+        Set<String> sharers = new HashSet<>();
+        int links = 0;
+        int publicCount = 0;
+        for (SharingEntryDTO entry : this.entries) {
+            if (SharingEntryDTO.FOLDER.equals(entry.getKind())) {
+                folderIds.add(entry.getId());
+            } else if (SharingEntryDTO.LINK.equals(entry.getKind())) {
+                links++;
+                sharers.add(entry.getTeamMemberId());
+                if (PUBLIC.equals(entry.getAccess())) {
+                    publicCount++;
+                }
+            }
+        }
+        this.sharedFolders = folderIds.size();
+        this.sharedLinks = links;
+        this.publicLinks = publicCount;
+        this.membersSharing = sharers.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMembersCrawled() {
+        return membersCrawled;
+    }
+
+    public Instant getCrawledAt() {
+        return crawledAt;
+    }
+
+    public int getSharedFolders() {
+        return sharedFolders;
+    }
+
+    public int getSharedLinks() {
+        return sharedLinks;
+    }
+
+    public int getPublicLinks() {
+        return publicLinks;
+    }
+
+    // Members who created at least one shared link.
+    public int getMembersSharing() {
+        return membersSharing;
+    }
+
+    /**
+     * Case-insensitive substring match on name and path, optionally limited to one kind; a blank
+     * query pages through everything in crawl order.
+     */
+    public Page search(String query, String kind, int page, int size) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        int skip = page * size;
+        int matches = 0;
+        List<SharingEntryDTO> rows = new ArrayList<>(size);
+
+        for (SharingEntryDTO entry : entries) {
+            if (kind != null && !kind.equals(entry.getKind())) {
+                continue;
+            }
+            if (!needle.isEmpty() && !contains(entry.getName(), needle) && !contains(entry.getPath(), needle)) {
+                continue;
+            }
+            if (matches >= skip && rows.size() < size) {
+                rows.add(entry);
+            }
+            matches++;
+        }
+
+        return new Page(rows, page, size, matches);
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    public record Page(List<SharingEntryDTO> entries, int page, int size, int totalMatches) {
+
+        public int totalPages() {
+            return size == 0 ? 0 : (totalMatches + size - 1) / size;
+        }
+
+        public boolean hasNext() {
+            return page + 1 < totalPages();
+        }
+
+        public boolean hasPrevious() {
+            return page > 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.dropbox.directory;
+
+import com.example.dropbox.dto.TeamMemberDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Immutable, column-oriented index of a team's members. Members are stored in parallel arrays and
+ * looked up by email or team_member_id through int-valued maps; DTOs are only created for the rows
+ * a caller actually reads.
+ */
+public final class TeamMemberDirectory {
+
+    private final String[] teamMemberIds;
+    private final String[] emails;
+    private final String[] displayNames;
+    private final String[] statuses;
+    private final String[] roles;
+    private final Map<String, Integer> byTeamMemberId;
+    private final Map<String, Integer> byEmail;
+
+    private TeamMemberDirectory(Builder builder) {
+        int size = builder.size;
+        this.teamMemberIds = Arrays.copyOf(builder.teamMemberIds, size);
+        this.emails = Arrays.copyOf(builder.emails, size);
+        this.displayNames = Arrays.copyOf(builder.displayNames, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.roles = Arrays.copyOf(builder.roles, size);
+        this.byTeamMemberId = new HashMap<>(builder.byTeamMemberId);
+        this.byEmail = new HashMap<>(builder.byEmail);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return teamMemberIds.length;
+    }
+
+    public Optional<TeamMemberDTO> findByTeamMemberId(String teamMemberId) {
+        return Optional.ofNullable(byTeamMemberId.get(teamMemberId)).map(this::member);
+    }
+
+    public Optional<TeamMemberDTO> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byEmail.get(email.toLowerCase(Locale.ROOT))).map(this::member);
+    }
+
+    public void forEach(Consumer<TeamMemberDTO> action) {
+        for (int i = 0; i < teamMemberIds.length; i++) {
+            action.accept(member(i));
+        }
+    }
+
+    public long countByStatus(String status) {
+        return Arrays.stream(statuses).filter(status::equals).count();
+    }
+
+    /**
+     * Case-insensitive substring match on email and display name; a blank query pages through all
+     * members in Dropbox order.
+     */
+    public Page search(String query, int page, int size) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        // In long: page comes straight from the request and page * size can overflow an int.
+        long skip = (long) page * size;
+        int matches = 0;
+        List<TeamMemberDTO> rows = new ArrayList<>(size);
+
+        for (int i = 0; i < teamMemberIds.length; i++) {
+            if (!needle.isEmpty() && !matches(i, needle)) {
+                continue;
+            }
+            if (matches >= skip && rows.size() < size) {
+                rows.add(member(i));
+            }
+            matches++;
+        }
+
+        return new Page(rows, page, size, matches);
+    }
+
+    private boolean matches(int index, String needle) {
+        return contains(emails[index], needle) || contains(displayNames[index], needle);
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private TeamMemberDTO member(int index) {
+        return new TeamMemberDTO(teamMemberIds[index], emails[index], displayNames[index],
+                statuses[index], roles[index]);
+    }
+
+    public record Page(List<TeamMemberDTO> members, int page, int size, int totalMatches) {
+
+        public int totalPages() {
+            return size == 0 ? 0 : (totalMatches + size - 1) / size;
+        }
+
+        public boolean hasNext() {
+            return page < totalPages() - 1;
+        }
+
+        public boolean hasPrevious() {
+            return page > 0;
+        }
+    }
+
+    public static final class Builder {
+
+        private String[] teamMemberIds = new String[256];
+        private String[] emails = new String[256];
+        private String[] displayNames = new String[256];
+        private String[] statuses = new String[256];
+        private String[] roles = new String[256];
+        private final Map<String, Integer> byTeamMemberId = new HashMap<>();
+        private final Map<String, Integer> byEmail = new HashMap<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(TeamMemberDTO member) {
+            if (byTeamMemberId.containsKey(member.getTeamMemberId())) {
+                return this;
+            }
+            if (size == teamMemberIds.length) {
+                grow();
+            }
+
+            // Statuses and roles come from a handful of tags; interning keeps one copy per value.
+            teamMemberIds[size] = member.getTeamMemberId();
+            emails[size] = member.getEmail();
+            displayNames[size] = member.getDisplayName();
+            statuses[size] = member.getStatus() != null ? member.getStatus().intern() : null;
+            roles[size] = member.getRole() != null ? member.getRole().intern() : null;
+
+            byTeamMemberId.put(member.getTeamMemberId(), size);
+            if (member.getEmail() != null) {
+                byEmail.put(member.getEmail().toLowerCase(Locale.ROOT), size);
+            }
+            size++;
+            return this;
+        }
+
+        public TeamMemberDirectory build() {
+            return new TeamMemberDirectory(this);
+        }
+
+        private void grow() {
+            int capacity = teamMemberIds.length * 2;
+            teamMemberIds = Arrays.copyOf(teamMemberIds, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            displayNames = Arrays.copyOf(displayNames, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            roles = Arrays.copyOf(roles, capacity);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.dropbox.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class AdminProfileDTO {
 
     @JsonProperty("team_member_id")
@@ -17,4 +19,20 @@ public class AdminProfileDTO {
 
     @JsonProperty("display_name")
     private String displayName;
+
+    // get_authenticated_admin nests the display name under "name"; flatten it on the way in.
+    @JsonProperty("name")
+    public void setName(Name name) {
+        this.displayName = name != null ? name.getDisplayName() : null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Name {
+
+        @JsonProperty("display_name")
+        private String displayName;
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.dropbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSectionDTO {
+
+    private String name;
+
+    // TeamInfoDTO, MemberCountsDTO, List<TeamEventDTO> or SharingStatsDTO, depending on the section; null if unavailable.
+    private Object value;
+
+    // Message shown in the section's placeholder when it failed or missed its deadline.
+    private String unavailable;
+}
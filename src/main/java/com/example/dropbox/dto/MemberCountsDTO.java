@@ -0,0 +1,19 @@
+package com.example.dropbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberCountsDTO {
+
+    private int total;
+
+    private long active;
+
+    private long invited;
+
+    private long suspended;
+}
@@ -0,0 +1,42 @@
+package com.example.dropbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MembersInfoDTO {
+
+    // One entry per requested member, in request order; ids that matched nobody are "id_not_found".
+    @JsonProperty("members_info")
+    private List<Entry> membersInfo;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        @JsonProperty(".tag")
+        private String tag;
+
+        private TeamMembersPageDTO.Profile profile;
+
+        private List<Role> roles;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Role {
+
+        @JsonProperty("role_id")
+        private String roleId;
+
+        private String name;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.dropbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedFoldersPageDTO {
+
+    private List<Folder> entries;
+
+    // list_folders has no has_more flag; a cursor means there is another page.
+    private String cursor;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Folder {
+
+        private String name;
+
+        @JsonProperty("shared_folder_id")
+        private String sharedFolderId;
+
+        @JsonProperty("path_lower")
+        private String pathLower;
+
+        @JsonProperty("access_type")
+        private Tag accessType;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tag {
+
+        @JsonProperty(".tag")
+        private String tag;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.dropbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedLinksPageDTO {
+
+    private List<Link> links;
+
+    private String cursor;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Link {
+
+        private String url;
+
+        private String name;
+
+        @JsonProperty("path_lower")
+        private String pathLower;
+
+        @JsonProperty("link_permissions")
+        private Permissions linkPermissions;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Permissions {
+
+        @JsonProperty("resolved_visibility")
+        private Tag resolvedVisibility;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tag {
+
+        @JsonProperty(".tag")
+        private String tag;
+    }
+}
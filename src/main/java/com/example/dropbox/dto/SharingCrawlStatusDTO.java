@@ -0,0 +1,31 @@
+package com.example.dropbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharingCrawlStatusDTO {
+
+    public static final String IDLE = "idle";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    // Some members failed, or the crawl was cut short; starting again resumes from the checkpoint.
+    public static final String INCOMPLETE = "incomplete";
+
+    private String state;
+
+    private long membersCrawled;
+
+    private long membersFailed;
+
+    private long entries;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
@@ -0,0 +1,33 @@
+package com.example.dropbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A shared folder a member has access to, or a shared link they created. {@code id} is the
+ * shared_folder_id for folders and the URL for links; {@code access} is the member's access type
+ * for folders and the resolved visibility for links.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharingEntryDTO {
+
+    public static final String FOLDER = "folder";
+    public static final String LINK = "link";
+
+    private String kind;
+
+    @JsonProperty("team_member_id")
+    private String teamMemberId;
+
+    private String id;
+
+    private String name;
+
+    private String path;
+
+    private String access;
+}
@@ -0,0 +1,21 @@
+package com.example.dropbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharingStatsDTO {
+
+    private Instant since;
+
+    private long sharingEvents;
+
+    private long sharedLinksCreated;
+
+    private long activeSharers;
+}
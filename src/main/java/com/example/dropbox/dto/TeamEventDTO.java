@@ -0,0 +1,31 @@
+package com.example.dropbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamEventDTO {
+
+    private long timestamp;
+
+    private String category;
+
+    private String type;
+
+    private String description;
+
+    private String actorName;
+
+    private String actorEmail;
+
+    private String actorTeamMemberId;
+
+    public Instant getOccurredAt() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+}
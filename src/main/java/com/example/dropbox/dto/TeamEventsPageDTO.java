@@ -0,0 +1,22 @@
+package com.example.dropbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamEventsPageDTO {
+
+    private List<JsonNode> events;
+
+    private String cursor;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+}
@@ -0,0 +1,64 @@
+package com.example.dropbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamMembersPageDTO {
+
+    private List<Member> members;
+
+    private String cursor;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Member {
+
+        private Profile profile;
+
+        private Tag role;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Profile {
+
+        @JsonProperty("team_member_id")
+        private String teamMemberId;
+
+        private String email;
+
+        private Name name;
+
+        private Tag status;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Name {
+
+        @JsonProperty("display_name")
+        private String displayName;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tag {
+
+        @JsonProperty(".tag")
+        private String tag;
+    }
+}
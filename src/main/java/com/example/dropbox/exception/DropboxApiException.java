@@ -0,0 +1,33 @@
+package com.example.dropbox.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+
+/**
+ * Failed Dropbox API call. Carries the upstream status when there was one, and how long Dropbox (or
+ * the local rate limiter) asked callers to wait before trying again.
+ */
+@Getter
+public class DropboxApiException extends RuntimeException {
+
+    private final HttpStatusCode status;
+    private final Duration retryAfter;
+
+    public DropboxApiException(String message, HttpStatusCode status, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public DropboxApiException(String message, HttpStatusCode status, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isThrottled() {
+        return status != null && (status.value() == 429 || status.value() == 503);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.dropbox.metrics;
+
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+
+/**
+ * Two exec-chain handlers placed around Apache HttpClient's CONNECT step. The step leases an endpoint
+ * from the pool and opens it if needed, so the time between them is the pool wait plus any connect
+ * and TLS time.
+ */
+public class ConnectionAcquireTimer {
+
+    private static final String START_ATTRIBUTE = ConnectionAcquireTimer.class.getName() + ".start";
+
+    private final DropboxApiMetrics metrics;
+    private final String client;
+
+    public ConnectionAcquireTimer(DropboxApiMetrics metrics, String client) {
+        this.metrics = metrics;
+        this.client = client;
+    }
+
+    public ExecChainHandler beforeConnect() {
+        return (request, scope, chain) -> {
+            scope.clientContext.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            return chain.proceed(request, scope);
+        };
+    }
+
+    public ExecChainHandler afterConnect() {
+        return (request, scope, chain) -> {
+            if (scope.clientContext.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+                metrics.recordConnectionAcquire(client, System.nanoTime() - start);
+            }
+            return chain.proceed(request, scope);
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.dropbox.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters shared by the WebClient filter and the RestTemplate interceptor. Every outbound Dropbox call
+ * is tagged with the client, method and endpoint path. Dropbox RPC paths are a small fixed set, so the
+ * path is safe to use as a tag.
+ *
+ * <ul>
+ *   <li>{@code dropbox.api.requests}: latency until the response body is consumed, also tagged with
+ *       status and outcome</li>
+ *   <li>{@code dropbox.api.request.size} and {@code dropbox.api.response.size}: payload bytes</li>
+ *   <li>{@code dropbox.api.in.flight}: calls started but not yet finished</li>
+ *   <li>{@code dropbox.api.connection.acquire}: time to get a connection from the RestTemplate pool</li>
+ * </ul>
+ */
+@Component
+public class DropboxApiMetrics {
+
+    public static final String WEB_CLIENT = "web-client";
+    public static final String REST_TEMPLATE = "rest-template";
+
+    static final String STATUS_IO_ERROR = "IO_ERROR";
+    static final String STATUS_CANCELLED = "CANCELLED";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public DropboxApiMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start(String client) {
+        inFlight(client).incrementAndGet();
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String client, String method, String endpoint,
+                     String status, String outcome, long responseBytes) {
+        inFlight(client).decrementAndGet();
+
+        sample.stop(Timer.builder("dropbox.api.requests")
+                .description("Outbound Dropbox API calls")
+                .tags(Tags.of("client", client, "method", method, "endpoint", endpoint,
+                        "status", status, "outcome", outcome))
+                .register(registry));
+
+        if (responseBytes >= 0) {
+            payloadSummary("dropbox.api.response.size", client, endpoint).record(responseBytes);
+        }
+    }
+
+    public void recordRequestSize(String client, String endpoint, long bytes) {
+        payloadSummary("dropbox.api.request.size", client, endpoint).record(bytes);
+    }
+
+    public void recordConnectionAcquire(String client, long nanos) {
+        Timer.builder("dropbox.api.connection.acquire")
+                .description("Time to lease a pooled connection, including connect and TLS for a new one")
+                .tag("client", client)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private DistributionSummary payloadSummary(String name, String client, String endpoint) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags("client", client, "endpoint", endpoint)
+                .register(registry);
+    }
+
+    private AtomicInteger inFlight(String client) {
+        return inFlight.computeIfAbsent(client,
+                key -> registry.gauge("dropbox.api.in.flight", Tags.of("client", key), new AtomicInteger()));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.dropbox.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * RestTemplate counterpart of {@link MetricsExchangeFilterFunction}. The response is wrapped so the
+ * timer stops when RestTemplate closes it after extraction, and the body is counted as it is read.
+ * Streaming readers are therefore measured the same way as buffered ones.
+ */
+public class MetricsClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DropboxApiMetrics metrics;
+
+    public MetricsClientHttpRequestInterceptor(DropboxApiMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String method = request.getMethod().name();
+        String endpoint = request.getURI().getPath();
+
+        metrics.recordRequestSize(DropboxApiMetrics.REST_TEMPLATE, endpoint, body.length);
+        Timer.Sample sample = metrics.start(DropboxApiMetrics.REST_TEMPLATE);
+
+        try {
+            return new MeteredResponse(execution.execute(request, body), sample, method, endpoint);
+        } catch (IOException | RuntimeException ex) {
+            metrics.stop(sample, DropboxApiMetrics.REST_TEMPLATE, method, endpoint,
+                    DropboxApiMetrics.STATUS_IO_ERROR, Outcome.UNKNOWN.name(), -1);
+            throw ex;
+        }
+    }
+
+    private final class MeteredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Timer.Sample sample;
+        private final String method;
+        private final String endpoint;
+        private CountingInputStream body;
+        private boolean closed;
+
+        private MeteredResponse(ClientHttpResponse delegate, Timer.Sample sample, String method, String endpoint) {
+            this.delegate = delegate;
+            this.sample = sample;
+            this.method = method;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                int status = statusValue();
+                metrics.stop(sample, DropboxApiMetrics.REST_TEMPLATE, method, endpoint,
+                        status > 0 ? String.valueOf(status) : DropboxApiMetrics.STATUS_IO_ERROR,
+                        status > 0 ? Outcome.forStatus(status).name() : Outcome.UNKNOWN.name(),
+                        body != null ? body.count : 0);
+            }
+            delegate.close();
+        }
+
+        private int statusValue() {
+            try {
+                return delegate.getStatusCode().value();
+            } catch (IOException ex) {
+                return -1;
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        // Without mark/reset, bytes peeked by the message converters are not counted twice.
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.dropbox.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times each WebClient exchange until its response body has been fully read or released. It counts
+ * the body bytes as they stream through, so chunked and compressed responses are sized correctly.
+ * Register it after the OAuth2 filter so token lookup and refresh are not counted as API latency.
+ */
+public class MetricsExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final DropboxApiMetrics metrics;
+
+    public MetricsExchangeFilterFunction(DropboxApiMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String method = request.method().name();
+        String endpoint = request.url().getPath();
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = metrics.start(DropboxApiMetrics.WEB_CLIENT);
+            AtomicBoolean recorded = new AtomicBoolean();
+
+            return next.exchange(request)
+                    .map(response -> {
+                        int status = response.statusCode().value();
+                        AtomicLong bytes = new AtomicLong();
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                                        .doFinally(signal -> {
+                                            if (recorded.compareAndSet(false, true)) {
+                                                metrics.stop(sample, DropboxApiMetrics.WEB_CLIENT, method, endpoint,
+                                                        String.valueOf(status), Outcome.forStatus(status).name(),
+                                                        bytes.get());
+                                            }
+                                        }))
+                                .build();
+                    })
+                    .doOnError(error -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            metrics.stop(sample, DropboxApiMetrics.WEB_CLIENT, method, endpoint,
+                                    DropboxApiMetrics.STATUS_IO_ERROR, Outcome.UNKNOWN.name(), -1);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            metrics.stop(sample, DropboxApiMetrics.WEB_CLIENT, method, endpoint,
+                                    DropboxApiMetrics.STATUS_CANCELLED, Outcome.UNKNOWN.name(), -1);
+                        }
+                    });
+        });
+    }
+}
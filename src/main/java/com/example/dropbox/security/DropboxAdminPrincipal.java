@@ -0,0 +1,94 @@
+package com.example.dropbox.security;
+
+import com.example.dropbox.dto.AdminProfileDTO;
+import com.example.dropbox.utils.Constants;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable principal for a signed-in team admin. Holds only the four fields the app reads instead of
+ * the full user-info response, and exposes them under the same attribute keys {@code DefaultOAuth2User}
+ * used so existing {@code getAttribute} callers keep working.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class DropboxAdminPrincipal implements OAuth2User, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final List<GrantedAuthority> AUTHORITIES =
+            AuthorityUtils.createAuthorityList(Constants.ROLE_ADMIN);
+
+    private final String teamMemberId;
+    private final String email;
+    private final String displayName;
+    private final String teamId;
+
+    public DropboxAdminPrincipal(String teamMemberId, String email, String displayName, String teamId) {
+        if (teamMemberId == null || teamMemberId.isEmpty()) {
+            throw new IllegalArgumentException("teamMemberId cannot be empty");
+        }
+        this.teamMemberId = teamMemberId;
+        this.email = email;
+        this.displayName = displayName;
+        this.teamId = teamId;
+    }
+
+    public static DropboxAdminPrincipal of(AdminProfileDTO profile, String teamId) {
+        return new DropboxAdminPrincipal(profile.getTeamMemberId(), profile.getEmail(),
+                profile.getDisplayName(), teamId);
+    }
+
+    @Override
+    public String getName() {
+        return teamMemberId;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A getAttribute(String name) {
+        return (A) switch (name) {
+            case Constants.TEAM_MEMBER_ID_ATTR -> teamMemberId;
+            case Constants.EMAIL_ATTR -> email;
+            case Constants.DISPLAY_NAME_ATTR -> displayName;
+            case Constants.TEAM_ID_KEY -> teamId;
+            default -> null;
+        };
+    }
+
+    // Built on demand; the framework only asks for the full map in rare paths such as auditing.
+    @Override
+    public Map<String, Object> getAttributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>(4);
+        attributes.put(Constants.TEAM_MEMBER_ID_ATTR, teamMemberId);
+        putIfPresent(attributes, Constants.EMAIL_ATTR, email);
+        putIfPresent(attributes, Constants.DISPLAY_NAME_ATTR, displayName);
+        putIfPresent(attributes, Constants.TEAM_ID_KEY, teamId);
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    private static void putIfPresent(Map<String, Object> attributes, String key, Object value) {
+        if (value != null) {
+            attributes.put(key, value);
+        }
+    }
+}
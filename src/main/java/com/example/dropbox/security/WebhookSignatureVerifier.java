@@ -0,0 +1,110 @@
+package com.example.dropbox.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks the {@code X-Dropbox-Signature} header of webhook notifications: the hex HMAC-SHA256 of the
+ * raw request body, keyed with the app secret. Every configured registration is a Dropbox app that may
+ * point its webhook here, so a notification is accepted if it was signed with any of their secrets.
+ */
+@Component
+public class WebhookSignatureVerifier implements MeterBinder {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private final List<SecretKeySpec> keys;
+    private final LongAdder valid = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+
+    @Autowired
+    public WebhookSignatureVerifier(ClientRegistrationRepository clientRegistrationRepository) {
+        this(appSecrets(clientRegistrationRepository));
+    }
+
+    public WebhookSignatureVerifier(Collection<String> appSecrets) {
+        this.keys = appSecrets.stream()
+                .map(secret -> new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256))
+                .toList();
+    }
+
+    public boolean verify(byte[] body, String signature) {
+        if (isSigned(body, signature)) {
+            valid.increment();
+            return true;
+        }
+        invalid.increment();
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("dropbox.webhook.signatures", valid, LongAdder::sum)
+                .tag("result", "valid")
+                .register(registry);
+        FunctionCounter.builder("dropbox.webhook.signatures", invalid, LongAdder::sum)
+                .tag("result", "invalid")
+                .register(registry);
+    }
+
+    private boolean isSigned(byte[] body, String signature) {
+        if (signature == null || keys.isEmpty()) {
+            return false;
+        }
+
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(signature.trim());
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+
+        for (SecretKeySpec key : keys) {
+            // Constant-time comparison, so the response time gives nothing away about the signature.
+            if (MessageDigest.isEqual(hmac(key, body), expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(key);
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", ex);
+        }
+    }
+
+    private static Set<String> appSecrets(ClientRegistrationRepository clientRegistrationRepository) {
+        Set<String> secrets = new LinkedHashSet<>();
+        if (clientRegistrationRepository instanceof Iterable<?> iterable) {
+            iterable.forEach(registration -> {
+                String secret = ((ClientRegistration) registration).getClientSecret();
+                if (secret != null && !secret.isBlank()) {
+                    secrets.add(secret);
+                }
+            });
+        }
+        return secrets;
+    }
+}
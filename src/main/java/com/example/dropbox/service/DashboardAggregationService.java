@@ -0,0 +1,21 @@
+package com.example.dropbox.service;
+
+import com.example.dropbox.dto.DashboardSectionDTO;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DashboardAggregationService {
+    String TEAM_INFO = "teamInfo";
+    String MEMBER_COUNTS = "memberCounts";
+    String RECENT_EVENTS = "recentEvents";
+    String SHARING_STATS = "sharingStats";
+
+    List<String> SECTIONS = List.of(TEAM_INFO, MEMBER_COUNTS, RECENT_EVENTS, SHARING_STATS);
+
+    /**
+     * Emits each of the requested sections as soon as it has loaded, failed or missed its deadline.
+     */
+    Flux<DashboardSectionDTO> streamSections(Collection<String> sections);
+}
@@ -1,7 +1,35 @@
 package com.example.dropbox.service;
 
+import com.example.dropbox.dto.SharingEntryDTO;
+import com.example.dropbox.dto.TeamEventsPageDTO;
 import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface DropboxAPIService {
     TeamInfoDTO getTeamInfo();
+
+    Mono<TeamInfoDTO> getTeamInfoAsync();
+
+    Flux<TeamMemberDTO> streamTeamMembers();
+
+    Flux<List<TeamMemberDTO>> streamTeamMemberPages();
+
+    Mono<TeamMemberDTO> getMember(String teamMemberIdOrEmail);
+
+    Mono<Map<String, TeamMemberDTO>> getMembers(Collection<String> teamMemberIdsOrEmails);
+
+    void expireMembers(String teamKey, Collection<String> teamMemberIds);
+
+    Flux<TeamEventsPageDTO> streamTeamEvents(String cursor, Instant startTime);
+
+    Flux<SharingEntryDTO> streamSharedFolders(String teamMemberId);
+
+    Flux<SharingEntryDTO> streamSharedLinks(String teamMemberId);
 }
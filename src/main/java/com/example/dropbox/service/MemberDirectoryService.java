@@ -0,0 +1,8 @@
+package com.example.dropbox.service;
+
+import com.example.dropbox.directory.TeamMemberDirectory;
+import reactor.core.publisher.Mono;
+
+public interface MemberDirectoryService {
+    Mono<TeamMemberDirectory> getDirectory();
+}
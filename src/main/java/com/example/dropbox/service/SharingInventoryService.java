@@ -0,0 +1,14 @@
+package com.example.dropbox.service;
+
+import com.example.dropbox.directory.SharingInventory;
+import com.example.dropbox.dto.SharingCrawlStatusDTO;
+
+import java.util.Optional;
+
+public interface SharingInventoryService {
+    SharingCrawlStatusDTO startCrawl();
+
+    SharingCrawlStatusDTO getStatus();
+
+    Optional<SharingInventory> getInventory();
+}
@@ -0,0 +1,20 @@
+package com.example.dropbox.service;
+
+import com.example.dropbox.dto.SharingStatsDTO;
+import com.example.dropbox.dto.TeamEventDTO;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface TeamEventService {
+    void trackCurrentTeam();
+
+    void untrack(Authentication authentication);
+
+    void pollTeam(String teamKey);
+
+    List<TeamEventDTO> getRecentEvents(int limit);
+
+    SharingStatsDTO getSharingStats(Duration window);
+}
@@ -0,0 +1,40 @@
+package com.example.dropbox.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface TeamExportService {
+
+    enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Writes the team's members to {@code out} page by page and returns the number of rows written.
+     */
+    long exportMembers(Format format, OutputStream out) throws IOException;
+
+    /**
+     * Writes the team's audit events since {@code since} to {@code out} page by page and returns the
+     * number of rows written.
+     */
+    long exportEvents(Format format, Instant since, OutputStream out) throws IOException;
+}
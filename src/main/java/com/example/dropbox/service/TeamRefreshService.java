@@ -0,0 +1,9 @@
+package com.example.dropbox.service;
+
+import java.util.Collection;
+
+public interface TeamRefreshService {
+    void enqueue(String teamKey, Collection<String> teamMemberIds);
+
+    int pendingTeams();
+}
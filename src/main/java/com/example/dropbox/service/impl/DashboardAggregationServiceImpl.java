@@ -0,0 +1,128 @@
+package com.example.dropbox.service.impl;
+
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.DashboardSectionDTO;
+import com.example.dropbox.dto.MemberCountsDTO;
+import com.example.dropbox.exception.DropboxApiException;
+import com.example.dropbox.service.DashboardAggregationService;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.MemberDirectoryService;
+import com.example.dropbox.service.TeamEventService;
+import com.example.dropbox.utils.SecurityUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the dashboard from independent sections that are subscribed to at once, each under its own
+ * deadline. A section that fails or runs late is emitted without a value and with the reason in
+ * {@link DashboardSectionDTO#getUnavailable()}, so the page waits for the slowest section within its
+ * deadline rather than the sum of all of them. Sections are emitted in completion order for callers
+ * that render them as they arrive. Cache-backed sections keep loading after a timeout or cancellation,
+ * so a later visit picks up the result.
+ */
+@Service
+@Slf4j
+public class DashboardAggregationServiceImpl implements DashboardAggregationService {
+
+    private final DropboxAPIService dropboxAPIService;
+    private final MemberDirectoryService memberDirectoryService;
+    private final TeamEventService teamEventService;
+    private final Duration teamInfoDeadline;
+    private final Duration memberCountsDeadline;
+    private final Duration recentEventsDeadline;
+    private final Duration sharingStatsDeadline;
+    private final int recentEventsLimit;
+    private final Duration sharingWindow;
+
+    public DashboardAggregationServiceImpl(DropboxAPIService dropboxAPIService,
+                                           MemberDirectoryService memberDirectoryService,
+                                           TeamEventService teamEventService,
+                                           @Value("${dashboard.deadline.team-info:2s}") Duration teamInfoDeadline,
+                                           @Value("${dashboard.deadline.member-counts:3s}") Duration memberCountsDeadline,
+                                           @Value("${dashboard.deadline.recent-events:1s}") Duration recentEventsDeadline,
+                                           @Value("${dashboard.deadline.sharing-stats:1s}") Duration sharingStatsDeadline,
+                                           @Value("${dashboard.recent-events-limit:10}") int recentEventsLimit,
+                                           @Value("${dashboard.sharing-window:7d}") Duration sharingWindow) {
+        this.dropboxAPIService = dropboxAPIService;
+        this.memberDirectoryService = memberDirectoryService;
+        this.teamEventService = teamEventService;
+        this.teamInfoDeadline = teamInfoDeadline;
+        this.memberCountsDeadline = memberCountsDeadline;
+        this.recentEventsDeadline = recentEventsDeadline;
+        this.sharingStatsDeadline = sharingStatsDeadline;
+        this.recentEventsLimit = recentEventsLimit;
+        this.sharingWindow = sharingWindow;
+    }
+
+    @Override
+    public Flux<DashboardSectionDTO> streamSections(Collection<String> sections) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return Flux.merge(sections.stream()
+                .distinct()
+                .map(name -> section(name, authentication))
+                .toList());
+    }
+
+    private Mono<DashboardSectionDTO> section(String name, Authentication authentication) {
+        return switch (name) {
+            case TEAM_INFO -> section(TEAM_INFO, "team information", teamInfoDeadline,
+                    dropboxAPIService.getTeamInfoAsync());
+            case MEMBER_COUNTS -> section(MEMBER_COUNTS, "member counts", memberCountsDeadline,
+                    memberDirectoryService.getDirectory().map(DashboardAggregationServiceImpl::countMembers));
+            case RECENT_EVENTS -> section(RECENT_EVENTS, "recent activity", recentEventsDeadline,
+                    offload(authentication, () -> teamEventService.getRecentEvents(recentEventsLimit)));
+            case SHARING_STATS -> section(SHARING_STATS, "sharing statistics", sharingStatsDeadline,
+                    offload(authentication, () -> teamEventService.getSharingStats(sharingWindow)));
+            default -> throw new IllegalArgumentException("Unknown dashboard section: " + name);
+        };
+    }
+
+    private static Mono<DashboardSectionDTO> section(String name, String label, Duration deadline, Mono<?> source) {
+        return source
+                .timeout(deadline)
+                .map(value -> new DashboardSectionDTO(name, value, null))
+                .onErrorResume(ex -> {
+                    log.warn("Dashboard section {} unavailable: {}", name, ex.toString());
+                    return Mono.just(new DashboardSectionDTO(name, null, placeholderMessage(label, ex)));
+                })
+                .defaultIfEmpty(new DashboardSectionDTO(name, null, null));
+    }
+
+    // The event store is file-backed and reads the security context, so it runs off the request
+    // thread as the requesting admin.
+    private static <T> Mono<T> offload(Authentication authentication, Supplier<T> work) {
+        return Mono.fromCallable(() -> SecurityUtils.runAs(authentication, work))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static MemberCountsDTO countMembers(TeamMemberDirectory directory) {
+        return new MemberCountsDTO(directory.size(),
+                directory.countByStatus("active"),
+                directory.countByStatus("invited"),
+                directory.countByStatus("suspended"));
+    }
+
+    private static String placeholderMessage(String label, Throwable ex) {
+        if (ex instanceof TimeoutException) {
+            return "Still loading " + label + ". Refresh in a moment.";
+        }
+        if (ex instanceof DropboxApiException apiException && apiException.isThrottled()
+                && apiException.getRetryAfter() != null) {
+            return "Dropbox is busy right now. Please try again in "
+                    + Math.max(1, apiException.getRetryAfter().toSeconds()) + " seconds.";
+        }
+        return "Unable to fetch " + label + ": " + ex.getMessage();
+    }
+}
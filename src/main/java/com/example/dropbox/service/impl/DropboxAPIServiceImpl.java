@@ -1,21 +1,69 @@
 package com.example.dropbox.service.impl;
 
+import com.example.dropbox.cache.BatchLoader;
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.cache.SingleFlight;
+import com.example.dropbox.dto.MembersInfoDTO;
+import com.example.dropbox.dto.SharedFoldersPageDTO;
+import com.example.dropbox.dto.SharedLinksPageDTO;
+import com.example.dropbox.dto.SharingEntryDTO;
+import com.example.dropbox.dto.TeamEventsPageDTO;
 import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.dto.TeamMembersPageDTO;
+import com.example.dropbox.exception.DropboxApiException;
 import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.tenant.TenantWebClients;
+import com.example.dropbox.throttle.RetryAfter;
+import com.example.dropbox.utils.SecurityUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.web.reactive.function.client.ServletOAuth2AuthorizedClientExchangeFilterFunction;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class DropboxAPIServiceImpl implements DropboxAPIService {
+
+    private static final String SELECT_USER_HEADER = "Dropbox-API-Select-User";
+
+    private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
     @Autowired
-    private final WebClient webClient;
+    private final TenantWebClients tenantWebClients;
+
+    private final RefreshingCache<String, TeamInfoDTO> teamInfoCache;
+
+    private final SingleFlight dropboxSingleFlight;
+
+    private final RefreshingCache<String, TeamMemberDTO> memberInfoCache;
+
+    private final BatchLoader<String, TeamMemberDTO> memberBatchLoader;
 
     @Value("${api.external.base-url}")
     private String externalApiBaseUrl;
@@ -23,30 +71,362 @@ public class DropboxAPIServiceImpl implements DropboxAPIService {
     @Value("${api.external.endpoint}")
     private String externalApiEndpoint;
 
+    @Value("${api.external.members-endpoint:/2/team/members/list}")
+    private String membersEndpoint;
+
+    @Value("${api.external.members-page-size:1000}")
+    private int membersPageSize;
+
+    @Value("${api.external.members-get-info-endpoint:/2/team/members/get_info_v2}")
+    private String membersGetInfoEndpoint;
+
+    @Value("${api.external.events-endpoint:/2/team_log/get_events}")
+    private String eventsEndpoint;
+
+    @Value("${api.external.events-page-size:1000}")
+    private int eventsPageSize;
+
+    @Value("${api.external.shared-folders-endpoint:/2/sharing/list_folders}")
+    private String sharedFoldersEndpoint;
+
+    @Value("${api.external.shared-folders-page-size:1000}")
+    private int sharedFoldersPageSize;
+
+    @Value("${api.external.shared-links-endpoint:/2/sharing/list_shared_links}")
+    private String sharedLinksEndpoint;
+
     @Override
     public TeamInfoDTO getTeamInfo() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String cacheKey = SecurityUtils.teamKey(authentication);
+
+        if (cacheKey == null) {
+            return fetchTeamInfo(authentication);
+        }
+
+        return teamInfoCache.get(cacheKey, key -> fetchTeamInfo(authentication));
+    }
+
+    @Override
+    public Mono<TeamInfoDTO> getTeamInfoAsync() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String cacheKey = SecurityUtils.teamKey(authentication);
+
+        if (cacheKey == null) {
+            return requestTeamInfo(authentication);
+        }
+
+        // The future may be shared with other waiters, so a cancelled subscriber must not cancel it.
+        return Mono.fromFuture(() -> teamInfoCache.getAsync(cacheKey,
+                key -> requestTeamInfo(authentication).toFuture()), true);
+    }
+
+    @Override
+    public Flux<TeamMemberDTO> streamTeamMembers() {
+        return streamTeamMemberPages().concatMapIterable(members -> members);
+    }
+
+    @Override
+    public Flux<List<TeamMemberDTO>> streamTeamMemberPages() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String listUri = externalApiBaseUrl + membersEndpoint;
+
+        log.debug("Streaming team members from: {}", listUri);
+
+        // expand() requests the next cursor as soon as a page is emitted, so the following page is
+        // in flight while the current one is being consumed downstream.
+        return post(listUri, Map.of("limit", membersPageSize), TeamMembersPageDTO.class, authentication)
+                .expand(page -> page.isHasMore()
+                        ? post(listUri + "/continue", Map.of("cursor", page.getCursor()),
+                                TeamMembersPageDTO.class, authentication)
+                        : Mono.empty())
+                .map(this::toTeamMembers)
+                .onErrorMap(exception -> {
+                    log.error("Error streaming team members", exception);
+                    return apiFailure("Failed to list team members", exception);
+                });
+    }
+
+    @Override
+    public Mono<TeamMemberDTO> getMember(String teamMemberIdOrEmail) {
+        return getMembers(List.of(teamMemberIdOrEmail))
+                .mapNotNull(members -> members.get(teamMemberIdOrEmail));
+    }
+
+    // Served from the member cache where possible; the rest is batched per team with the lookups of
+    // concurrent callers. Members Dropbox doesn't know are left out of the result.
+    @Override
+    public Mono<Map<String, TeamMemberDTO>> getMembers(Collection<String> teamMemberIdsOrEmails) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String teamKey = SecurityUtils.teamKey(authentication);
+        Set<String> lookups = new LinkedHashSet<>(teamMemberIdsOrEmails);
+
+        // Every lookup is subscribed at once, so they all make it into the same batches.
+        return Flux.fromIterable(lookups)
+                .flatMap(lookup -> resolveMember(memberSelector(lookup), teamKey, authentication)
+                        .map(member -> Map.entry(lookup, member)), Math.max(1, lookups.size()))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    @Override
+    public void expireMembers(String teamKey, Collection<String> teamMemberIds) {
+        for (String teamMemberId : teamMemberIds) {
+            TeamMemberDTO member = memberInfoCache.getIfPresent(memberCacheKey(teamKey, teamMemberId));
+            memberInfoCache.expire(memberCacheKey(teamKey, teamMemberId));
+            if (member != null && member.getEmail() != null) {
+                memberInfoCache.expire(memberCacheKey(teamKey, memberSelector(member.getEmail())));
+            }
+        }
+    }
+
+    @Override
+    public Flux<TeamEventsPageDTO> streamTeamEvents(String cursor, Instant startTime) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String eventsUri = externalApiBaseUrl + eventsEndpoint;
+        String continueUri = eventsUri + "/continue";
+
+        log.debug("Streaming team events from: {} (resuming: {})", eventsUri, cursor != null);
+
+        Mono<TeamEventsPageDTO> firstPage = cursor != null
+                ? post(continueUri, Map.of("cursor", cursor), TeamEventsPageDTO.class, authentication)
+                : post(eventsUri, Map.of(
+                        "limit", eventsPageSize,
+                        "time", Map.of("start_time", startTime.truncatedTo(ChronoUnit.SECONDS).toString())),
+                        TeamEventsPageDTO.class, authentication);
+
+        return firstPage
+                .expand(page -> page.isHasMore()
+                        ? post(continueUri, Map.of("cursor", page.getCursor()), TeamEventsPageDTO.class, authentication)
+                        : Mono.empty())
+                .onErrorMap(exception -> {
+                    log.error("Error streaming team events", exception);
+                    return apiFailure("Failed to fetch team events", exception);
+                });
+    }
+
+    @Override
+    public Flux<SharingEntryDTO> streamSharedFolders(String teamMemberId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String listUri = externalApiBaseUrl + sharedFoldersEndpoint;
+
+        return post(listUri, Map.of("limit", sharedFoldersPageSize), SharedFoldersPageDTO.class, authentication,
+                teamMemberId)
+                .expand(page -> page.getCursor() != null
+                        ? post(listUri + "/continue", Map.of("cursor", page.getCursor()),
+                                SharedFoldersPageDTO.class, authentication, teamMemberId)
+                        : Mono.empty())
+                .concatMapIterable(page -> page.getEntries() != null ? page.getEntries() : List.of())
+                .map(folder -> new SharingEntryDTO(SharingEntryDTO.FOLDER, teamMemberId, folder.getSharedFolderId(),
+                        folder.getName(), folder.getPathLower(),
+                        folder.getAccessType() != null ? folder.getAccessType().getTag() : null))
+                .onErrorMap(exception -> apiFailure("Failed to list shared folders of " + teamMemberId, exception));
+    }
+
+    // list_shared_links pages with the same endpoint; the cursor goes in the body of the next call.
+    @Override
+    public Flux<SharingEntryDTO> streamSharedLinks(String teamMemberId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String listUri = externalApiBaseUrl + sharedLinksEndpoint;
+
+        return post(listUri, Map.of(), SharedLinksPageDTO.class, authentication, teamMemberId)
+                .expand(page -> page.isHasMore()
+                        ? post(listUri, Map.of("cursor", page.getCursor()), SharedLinksPageDTO.class, authentication,
+                                teamMemberId)
+                        : Mono.empty())
+                .concatMapIterable(page -> page.getLinks() != null ? page.getLinks() : List.of())
+                .map(link -> new SharingEntryDTO(SharingEntryDTO.LINK, teamMemberId, link.getUrl(), link.getName(),
+                        link.getPathLower(), visibility(link)))
+                .onErrorMap(exception -> apiFailure("Failed to list shared links of " + teamMemberId, exception));
+    }
+
+    private Mono<TeamMemberDTO> resolveMember(String selector, String teamKey, Authentication authentication) {
+        if (teamKey == null) {
+            return fetchMembers(List.of(selector), authentication)
+                    .mapNotNull(members -> members.get(selector));
+        }
+
+        // The future may be shared with other waiters, so a cancelled subscriber must not cancel it.
+        return Mono.fromFuture(() -> memberInfoCache.getAsync(memberCacheKey(teamKey, selector),
+                key -> memberBatchLoader.load(teamKey, selector, batch -> fetchMembers(batch, authentication))), true);
+    }
+
+    private Mono<Map<String, TeamMemberDTO>> fetchMembers(List<String> selectors, Authentication authentication) {
+        String teamKey = SecurityUtils.teamKey(authentication);
+        String getInfoUri = externalApiBaseUrl + membersGetInfoEndpoint;
+        List<Map<String, String>> members = selectors.stream()
+                .map(selector -> selector.contains("@")
+                        ? Map.of(".tag", "email", "email", selector)
+                        : Map.of(".tag", "team_member_id", "team_member_id", selector))
+                .toList();
+
+        log.debug("Looking up {} members at: {}", selectors.size(), getInfoUri);
+
+        return post(getInfoUri, Map.of("members", members), MembersInfoDTO.class, authentication)
+                .map(info -> {
+                    List<MembersInfoDTO.Entry> entries = info.getMembersInfo() != null ? info.getMembersInfo() : List.of();
+                    Map<String, TeamMemberDTO> resolved = new HashMap<>();
+                    // Results come back in request order.
+                    for (int i = 0; i < Math.min(selectors.size(), entries.size()); i++) {
+                        TeamMemberDTO member = toTeamMember(entries.get(i));
+                        if (member != null) {
+                            resolved.put(selectors.get(i), member);
+                            cacheUnderOtherKey(teamKey, selectors.get(i), member);
+                        }
+                    }
+                    return resolved;
+                })
+                .onErrorMap(exception -> apiFailure("Failed to look up team members", exception));
+    }
+
+    // A member looked up by email is also cached under its id, and the other way around.
+    private void cacheUnderOtherKey(String teamKey, String selector, TeamMemberDTO member) {
+        if (teamKey == null) {
+            return;
+        }
+        String other = selector.contains("@")
+                ? member.getTeamMemberId()
+                : member.getEmail() != null ? memberSelector(member.getEmail()) : null;
+        if (other != null && !other.equals(selector)) {
+            memberInfoCache.put(memberCacheKey(teamKey, other), member);
+        }
+    }
+
+    // Emails are case-insensitive to Dropbox, so they are looked up and cached lower-cased.
+    private static String memberSelector(String teamMemberIdOrEmail) {
+        return teamMemberIdOrEmail.contains("@") ? teamMemberIdOrEmail.toLowerCase(Locale.ROOT) : teamMemberIdOrEmail;
+    }
+
+    private static String memberCacheKey(String teamKey, String selector) {
+        return teamKey + "|" + selector;
+    }
+
+    private TeamInfoDTO fetchTeamInfo(Authentication authentication) {
+        return requestTeamInfo(authentication).block();
+    }
+
+    private Mono<TeamInfoDTO> requestTeamInfo(Authentication authentication) {
         String fullUri = externalApiBaseUrl + externalApiEndpoint;
 
-        log.info("Fetching team info from: {}", fullUri);
+        log.debug("Fetching team info from: {}", fullUri);
 
-        try {
-            TeamInfoDTO teamInfo = webClient
+        return post(fullUri, "null", TeamInfoDTO.class, authentication)
+                .doOnNext(teamInfo -> log.debug("Successfully fetched team info: {}", teamInfo.getName()))
+                .onErrorMap(exception -> {
+                    log.error("Error fetching team info", exception);
+                    return apiFailure("Failed to fetch team info", exception);
+                });
+    }
+
+    // Keeps the upstream status and Retry-After so callers can tell throttling apart from failures.
+    private static DropboxApiException apiFailure(String prefix, Throwable exception) {
+        String message = prefix + ": " + exception.getMessage();
+        if (exception instanceof DropboxApiException apiException) {
+            return new DropboxApiException(message, apiException.getStatus(), apiException.getRetryAfter(), exception);
+        }
+        if (exception instanceof WebClientResponseException responseException) {
+            return new DropboxApiException(message, responseException.getStatusCode(),
+                    RetryAfter.parse(responseException.getHeaders()), exception);
+        }
+        return new DropboxApiException(message, null, null, exception);
+    }
+
+    private <T> Mono<T> post(String uri, Object body, Class<T> responseType, Authentication authentication) {
+        return post(uri, body, responseType, authentication, null);
+    }
+
+    // Team-scoped calls are coalesced: every admin of a team gets the same answer, so concurrent
+    // identical requests share one upstream call. selectUser runs a user endpoint as that team member.
+    private <T> Mono<T> post(String uri, Object body, Class<T> responseType, Authentication authentication,
+                             String selectUser) {
+        String teamKey = SecurityUtils.teamKey(authentication);
+        Supplier<Mono<T>> call = () -> {
+            WebClient.RequestBodySpec request = tenantWebClients.forTeam(teamKey)
                     .post()
-                    .uri(fullUri)
-                    .attributes(ServletOAuth2AuthorizedClientExchangeFilterFunction
-                            .clientRegistrationId("dbx"))
-                    .header("Content-Type", "application/json")
-                    .bodyValue("null")
+                    .uri(uri)
+                    .attributes(requestAttributes(authentication))
+                    .header("Content-Type", "application/json");
+            if (selectUser != null) {
+                request = request.header(SELECT_USER_HEADER, selectUser);
+            }
+            return request
+                    .bodyValue(body)
                     .retrieve()
-                    .bodyToMono(TeamInfoDTO.class)
-                    .block();
+                    .bodyToMono(responseType);
+        };
+
+        if (teamKey == null) {
+            return call.get();
+        }
+        return dropboxSingleFlight.execute(uri + "|" + teamKey + "|" + selectUser + "|" + normalizedBody(body), call);
+    }
+
+    private static String normalizedBody(Object body) {
+        if (body instanceof String text) {
+            return text;
+        }
+        try {
+            return KEY_MAPPER.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Request body is not serializable", ex);
+        }
+    }
 
-            log.info("Successfully fetched team info: {}", teamInfo.getName());
-            return teamInfo;
+    private List<TeamMemberDTO> toTeamMembers(TeamMembersPageDTO page) {
+        if (page.getMembers() == null) {
+            return List.of();
+        }
+        return page.getMembers().stream()
+                .map(member -> {
+                    TeamMembersPageDTO.Profile profile = member.getProfile();
+                    return new TeamMemberDTO(
+                            profile.getTeamMemberId(),
+                            profile.getEmail(),
+                            profile.getName() != null ? profile.getName().getDisplayName() : null,
+                            profile.getStatus() != null ? profile.getStatus().getTag() : null,
+                            member.getRole() != null ? member.getRole().getTag() : null);
+                })
+                .toList();
+    }
 
-        } catch (Exception exception) {
-            log.error("Error fetching team info", exception);
-            throw new RuntimeException("Failed to fetch team info: " + exception.getMessage(), exception);
+    // get_info_v2 lists admin roles by name; a member without any is a plain member.
+    private static TeamMemberDTO toTeamMember(MembersInfoDTO.Entry entry) {
+        if (!"member_info".equals(entry.getTag()) || entry.getProfile() == null) {
+            return null;
+        }
+        TeamMembersPageDTO.Profile profile = entry.getProfile();
+        String role = entry.getRoles() == null ? null
+                : entry.getRoles().isEmpty() ? "member_only" : entry.getRoles().get(0).getName();
+        return new TeamMemberDTO(
+                profile.getTeamMemberId(),
+                profile.getEmail(),
+                profile.getName() != null ? profile.getName().getDisplayName() : null,
+                profile.getStatus() != null ? profile.getStatus().getTag() : null,
+                role);
+    }
+
+    private static String visibility(SharedLinksPageDTO.Link link) {
+        if (link.getLinkPermissions() == null || link.getLinkPermissions().getResolvedVisibility() == null) {
+            return null;
+        }
+        return link.getLinkPermissions().getResolvedVisibility().getTag();
+    }
+
+    // The authentication is passed explicitly so background refreshes, which run without a
+    // security context, still authorize as the admin that triggered them, with the registration
+    // they signed in through.
+    private Consumer<Map<String, Object>> requestAttributes(Authentication authentication) {
+        Consumer<Map<String, Object>> attributes = map -> {
+        };
+
+        String registrationId = SecurityUtils.registrationId(authentication);
+        if (registrationId != null) {
+            attributes = attributes.andThen(
+                    ServletOAuth2AuthorizedClientExchangeFilterFunction.clientRegistrationId(registrationId));
+        }
+        if (authentication != null) {
+            attributes = attributes.andThen(
+                    ServletOAuth2AuthorizedClientExchangeFilterFunction.authentication(authentication));
         }
+        return attributes;
     }
 }
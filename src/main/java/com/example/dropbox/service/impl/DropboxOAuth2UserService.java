@@ -1,22 +1,29 @@
 package com.example.dropbox.service.impl;
 
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.dto.AdminProfileDTO;
 import com.example.dropbox.exception.OAuth2UserInfoException;
+import com.example.dropbox.security.DropboxAdminPrincipal;
 import com.example.dropbox.utils.Constants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
-import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 @Component
@@ -25,28 +32,33 @@ public class DropboxOAuth2UserService implements  OAuth2UserService<OAuth2UserRe
 
     private static final String ERROR_CODE_INVALID_RESPONSE = "invalid_user_info_response";
     private static final String LOG_PREFIX = "[DropboxOAuth2]";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     private final RestTemplate restTemplate;
+    private final RefreshingCache<String, DropboxAdminPrincipal> adminPrincipalCache;
+    private final RefreshingCache<String, String> adminPrincipalKeyCache;
 
-    public DropboxOAuth2UserService(RestTemplate restTemplate) {
+    public DropboxOAuth2UserService(RestTemplate restTemplate,
+                                    RefreshingCache<String, DropboxAdminPrincipal> adminPrincipalCache,
+                                    RefreshingCache<String, String> adminPrincipalKeyCache) {
         this.restTemplate = restTemplate;
+        this.adminPrincipalCache = adminPrincipalCache;
+        this.adminPrincipalKeyCache = adminPrincipalKeyCache;
     }
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) {
-        log.info("{} Initiating user info request", LOG_PREFIX);
+        log.debug("{} Initiating user info request", LOG_PREFIX);
 
         try {
-            String userInfoUri = extractUserInfoUri(userRequest);
-            String accessToken = extractAccessToken(userRequest);
+            String cacheKey = cacheKey(userRequest);
+            DropboxAdminPrincipal principal = adminPrincipalCache.get(cacheKey,
+                    key -> resolvePrincipal(userRequest));
+            adminPrincipalKeyCache.put(principal.getName(), cacheKey);
 
-            ResponseEntity<Map> response = fetchUserInfo(userInfoUri, accessToken);
-            Map<String, Object> responseBody = validateResponse(response);
-            Map<String, Object> userAttributes = processResponseBody(responseBody);
+            logSuccessfulAuthentication(principal);
 
-            logSuccessfulAuthentication(userAttributes);
-
-            return createOAuth2User(userAttributes);
+            return principal;
 
         } catch (RestClientException ex) {
             log.error("{} REST client error during user info retrieval", LOG_PREFIX, ex);
@@ -67,6 +79,49 @@ public class DropboxOAuth2UserService implements  OAuth2UserService<OAuth2UserRe
         }
     }
 
+    public void evictCachedUser(String principalName) {
+        String cacheKey = adminPrincipalKeyCache.getIfPresent(principalName);
+        adminPrincipalKeyCache.invalidate(principalName);
+
+        if (cacheKey != null) {
+            adminPrincipalCache.invalidate(cacheKey);
+            log.debug("{} Evicted cached admin principal for {}", LOG_PREFIX, principalName);
+        }
+    }
+
+    private DropboxAdminPrincipal resolvePrincipal(OAuth2UserRequest userRequest) {
+        String userInfoUri = extractUserInfoUri(userRequest);
+        String accessToken = extractAccessToken(userRequest);
+
+        AdminProfileDTO adminProfile = fetchAdminProfile(userInfoUri, accessToken);
+        validateAdminProfile(adminProfile);
+
+        return DropboxAdminPrincipal.of(adminProfile, extractTeamId(userRequest));
+    }
+
+    // Keyed by a hash so raw tokens are never held as map keys. A stable account identity from the
+    // token response is preferred, so an admin logging in again with a fresh token still hits.
+    private String cacheKey(OAuth2UserRequest userRequest) {
+        Map<String, Object> tokenParameters = userRequest.getAdditionalParameters();
+        Object teamId = tokenParameters.get(Constants.TEAM_ID_KEY);
+        Object accountId = tokenParameters.get(Constants.ACCOUNT_ID_KEY);
+
+        String identity = accountId != null
+                ? "account:" + teamId + ":" + accountId
+                : "token:" + extractAccessToken(userRequest);
+
+        return userRequest.getClientRegistration().getRegistrationId() + ":" + sha256(identity);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
     private String extractUserInfoUri(OAuth2UserRequest userRequest) {
         String uri = userRequest.getClientRegistration()
                 .getProviderDetails()
@@ -80,86 +135,99 @@ public class DropboxOAuth2UserService implements  OAuth2UserService<OAuth2UserRe
         return userRequest.getAccessToken().getTokenValue();
     }
 
-    private ResponseEntity<Map> fetchUserInfo(String userInfoUri, String accessToken) {
+    private AdminProfileDTO fetchAdminProfile(String userInfoUri, String accessToken) {
         log.debug("{} Sending POST request to Dropbox team admin endpoint", LOG_PREFIX);
 
-        HttpHeaders headers = createHeaders(accessToken);
-        HttpEntity<String> requestEntity = new HttpEntity<>(Constants.REQUEST_BODY_NULL, headers);
-
-        ResponseEntity<Map> response = restTemplate.exchange(
+        return restTemplate.execute(
                 userInfoUri,
                 HttpMethod.POST,
-                requestEntity,
-                Map.class
+                request -> writeRequest(request, accessToken),
+                this::readAdminProfile
         );
-
-        log.debug("{} Response status: {}", LOG_PREFIX, response.getStatusCode());
-        return response;
     }
 
-    private HttpHeaders createHeaders(String accessToken) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
-        headers.set(HttpHeaders.CONTENT_TYPE, Constants.CONTENT_TYPE_JSON);
-        return headers;
+    private void writeRequest(ClientHttpRequest request, String accessToken) throws IOException {
+        request.getHeaders().setBearerAuth(accessToken);
+        request.getHeaders().set(HttpHeaders.CONTENT_TYPE, Constants.CONTENT_TYPE_JSON);
+        request.getBody().write(Constants.REQUEST_BODY_NULL.getBytes(StandardCharsets.UTF_8));
     }
 
-    private Map<String, Object> validateResponse(ResponseEntity<Map> response) {
-        Map<String, Object> body = response.getBody();
+    // Streams the response and keeps only admin_profile.{team_member_id, email, name.display_name};
+    // everything else is skipped without being materialized.
+    private AdminProfileDTO readAdminProfile(ClientHttpResponse response) throws IOException {
+        log.debug("{} Response status: {}", LOG_PREFIX, response.getStatusCode());
 
-        if (body == null || body.isEmpty()) {
-            log.error("{} Received empty response from user info endpoint", LOG_PREFIX);
-            throw new OAuth2UserInfoException(
-                    ERROR_CODE_INVALID_RESPONSE,
-                    "Empty response from user info endpoint"
-            );
+        try (JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            AdminProfileDTO adminProfile = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (Constants.ADMIN_PROFILE_KEY.equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    adminProfile = readProfileObject(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return adminProfile;
         }
-
-        return body;
     }
 
-    private Map<String, Object> processResponseBody(Map<String, Object> responseBody) {
-        Map<String, Object> userAttributes = new HashMap<>(responseBody);
-
-        if (responseBody.containsKey(Constants.ADMIN_PROFILE_KEY)) {
-            enrichUserAttributesWithAdminProfile(userAttributes, responseBody);
+    private AdminProfileDTO readProfileObject(JsonParser parser) throws IOException {
+        AdminProfileDTO adminProfile = new AdminProfileDTO();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "team_member_id" -> adminProfile.setTeamMemberId(parser.getValueAsString());
+                case "email" -> adminProfile.setEmail(parser.getValueAsString());
+                case Constants.NAME_KEY -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        adminProfile.setName(readName(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
         }
-
-        return userAttributes;
+        return adminProfile;
     }
 
-    @SuppressWarnings("unchecked")
-    private void enrichUserAttributesWithAdminProfile(
-            Map<String, Object> userAttributes,
-            Map<String, Object> responseBody) {
-
-        Map<String, Object> adminProfile = (Map<String, Object>) responseBody.get(Constants.ADMIN_PROFILE_KEY);
-
-        userAttributes.put(Constants.TEAM_MEMBER_ID_ATTR, adminProfile.get("team_member_id"));
-        userAttributes.put(Constants.EMAIL_ATTR, adminProfile.get("email"));
-
-        if (adminProfile.containsKey(Constants.NAME_KEY)) {
-            Map<String, Object> name = (Map<String, Object>) adminProfile.get(Constants.NAME_KEY);
-            userAttributes.put(Constants.DISPLAY_NAME_ATTR, name.get(Constants.DISPLAY_NAME_KEY));
+    private AdminProfileDTO.Name readName(JsonParser parser) throws IOException {
+        AdminProfileDTO.Name name = new AdminProfileDTO.Name();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (Constants.DISPLAY_NAME_KEY.equals(field)) {
+                name.setDisplayName(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
         }
+        return name;
     }
 
-    private void logSuccessfulAuthentication(Map<String, Object> userAttributes) {
-        String teamMemberId = Optional.ofNullable(userAttributes.get(Constants.TEAM_MEMBER_ID_ATTR))
-                .map(Object::toString)
-                .orElse("unknown");
-        log.info("{} User authenticated successfully: {}", LOG_PREFIX, teamMemberId);
+    private void validateAdminProfile(AdminProfileDTO adminProfile) {
+        if (adminProfile == null || adminProfile.getTeamMemberId() == null) {
+            log.error("{} Received response without an admin profile from user info endpoint", LOG_PREFIX);
+            throw new OAuth2UserInfoException(
+                    ERROR_CODE_INVALID_RESPONSE,
+                    "Missing admin profile in user info response"
+            );
+        }
     }
 
-    private OAuth2User createOAuth2User(Map<String, Object> userAttributes) {
-        Set<GrantedAuthority> authorities = Collections.singleton(
-                new SimpleGrantedAuthority(Constants.ROLE_ADMIN)
-        );
+    private String extractTeamId(OAuth2UserRequest userRequest) {
+        Object teamId = userRequest.getAdditionalParameters().get(Constants.TEAM_ID_KEY);
+        return teamId != null ? teamId.toString() : null;
+    }
 
-        return new DefaultOAuth2User(
-                authorities,
-                userAttributes,
-                Constants.TEAM_MEMBER_ID_ATTR
-        );
+    private void logSuccessfulAuthentication(DropboxAdminPrincipal principal) {
+        log.info("{} User authenticated successfully: {}", LOG_PREFIX, principal.getName());
     }
 }
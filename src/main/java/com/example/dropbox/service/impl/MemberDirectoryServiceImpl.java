@@ -0,0 +1,44 @@
+package com.example.dropbox.service.impl;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.MemberDirectoryService;
+import com.example.dropbox.utils.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MemberDirectoryServiceImpl implements MemberDirectoryService {
+
+    private final DropboxAPIService dropboxAPIService;
+    private final RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache;
+
+    @Override
+    public Mono<TeamMemberDirectory> getDirectory() {
+        String teamKey = SecurityUtils.teamKey(SecurityContextHolder.getContext().getAuthentication());
+
+        if (teamKey == null) {
+            return buildDirectory();
+        }
+
+        return Mono.fromFuture(() -> memberDirectoryCache.getAsync(teamKey,
+                key -> buildDirectory().toFuture()), true);
+    }
+
+    // Members are folded into the index as each page arrives; no intermediate list is built.
+    private Mono<TeamMemberDirectory> buildDirectory() {
+        long started = System.nanoTime();
+
+        return dropboxAPIService.streamTeamMembers()
+                .collect(TeamMemberDirectory::builder, TeamMemberDirectory.Builder::add)
+                .map(TeamMemberDirectory.Builder::build)
+                .doOnNext(directory -> log.info("Indexed {} team members in {} ms", directory.size(),
+                        (System.nanoTime() - started) / 1_000_000));
+    }
+}
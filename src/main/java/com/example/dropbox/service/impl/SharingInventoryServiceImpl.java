@@ -0,0 +1,244 @@
+package com.example.dropbox.service.impl;
+
+import com.example.dropbox.directory.SharingInventory;
+import com.example.dropbox.dto.SharingCrawlStatusDTO;
+import com.example.dropbox.dto.SharingEntryDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.SharingInventoryService;
+import com.example.dropbox.store.SharingInventoryStore;
+import com.example.dropbox.utils.SecurityUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Crawls the shared folders and shared links of every active member of a team, acting as each member
+ * through Dropbox-API-Select-User. Up to {@code parallelism} members are crawled at once; a member
+ * that finishes frees its slot for the next one, so a few members with thousands of links don't hold
+ * up the rest. Every call still goes through the team and app rate limits. Each member's results are
+ * checkpointed as they arrive, so an interrupted or partly failed crawl resumes with the members it
+ * hasn't covered yet.
+ */
+@Service
+@Slf4j
+public class SharingInventoryServiceImpl implements SharingInventoryService {
+
+    private static final String ACTIVE = "active";
+
+    private final DropboxAPIService dropboxAPIService;
+    private final Path storeDirectory;
+    private final int parallelism;
+
+    private final Map<String, SharingInventoryStore> stores = new ConcurrentHashMap<>();
+    private final Map<String, Crawl> crawls = new ConcurrentHashMap<>();
+    private final Map<String, SharingInventory> inventories = new ConcurrentHashMap<>();
+
+    public SharingInventoryServiceImpl(DropboxAPIService dropboxAPIService,
+                                       @Value("${storage.base-dir:data}") Path storageBaseDir,
+                                       @Value("${sharing.crawler.parallelism:8}") int parallelism) {
+        this.dropboxAPIService = dropboxAPIService;
+        this.storeDirectory = storageBaseDir.resolve("sharing");
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public SharingCrawlStatusDTO startCrawl() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String teamKey = SecurityUtils.teamKey(authentication);
+        if (teamKey == null) {
+            throw new IllegalStateException("A sharing crawl needs a signed-in team admin");
+        }
+
+        Crawl[] started = new Crawl[1];
+        Crawl crawl = crawls.compute(teamKey, (key, current) -> current != null && current.isRunning()
+                ? current
+                : (started[0] = new Crawl()));
+        if (started[0] != null) {
+            crawl.subscription = run(teamKey, authentication, crawl);
+        }
+        return crawl.toStatus();
+    }
+
+    @Override
+    public SharingCrawlStatusDTO getStatus() {
+        String teamKey = SecurityUtils.teamKey(SecurityContextHolder.getContext().getAuthentication());
+        if (teamKey == null) {
+            return new SharingCrawlStatusDTO(SharingCrawlStatusDTO.IDLE, 0, 0, 0, null, null);
+        }
+
+        Crawl crawl = crawls.get(teamKey);
+        if (crawl != null) {
+            return crawl.toStatus();
+        }
+        // Nothing ran since startup: report what is on disk.
+        if (store(teamKey).hasCheckpoint()) {
+            return new SharingCrawlStatusDTO(SharingCrawlStatusDTO.INCOMPLETE, 0, 0, 0, null, null);
+        }
+        return getInventory()
+                .map(inventory -> new SharingCrawlStatusDTO(SharingCrawlStatusDTO.COMPLETED,
+                        inventory.getMembersCrawled(), 0, inventory.size(), null, inventory.getCrawledAt()))
+                .orElseGet(() -> new SharingCrawlStatusDTO(SharingCrawlStatusDTO.IDLE, 0, 0, 0, null, null));
+    }
+
+    @Override
+    public Optional<SharingInventory> getInventory() {
+        String teamKey = SecurityUtils.teamKey(SecurityContextHolder.getContext().getAuthentication());
+        if (teamKey == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(inventories.computeIfAbsent(teamKey, this::loadInventory));
+    }
+
+    @PreDestroy
+    public void stopCrawls() {
+        crawls.values().forEach(crawl -> {
+            if (crawl.subscription != null) {
+                crawl.subscription.dispose();
+            }
+        });
+        stores.values().forEach(SharingInventoryStore::close);
+    }
+
+    // The store is opened inside the chain, so one that fails to open ends the crawl as INCOMPLETE
+    // instead of leaving it RUNNING with nothing subscribed.
+    private Disposable run(String teamKey, Authentication authentication, Crawl crawl) {
+        return Mono.fromCallable(() -> store(teamKey))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(store -> crawl(teamKey, authentication, store, crawl))
+                .doOnCancel(() -> crawl.finish(SharingCrawlStatusDTO.INCOMPLETE))
+                .subscribe(
+                        ignored -> {
+                        },
+                        error -> {
+                            log.warn("Sharing crawl for team {} stopped: {}", teamKey, error.getMessage());
+                            crawl.finish(SharingCrawlStatusDTO.INCOMPLETE);
+                        });
+    }
+
+    private Mono<Void> crawl(String teamKey, Authentication authentication, SharingInventoryStore store, Crawl crawl) {
+        return Mono.fromCallable(store::beginCrawl)
+                .flatMapMany(checkpoint -> {
+                    crawl.resume(checkpoint);
+                    Flux<String> members = SecurityUtils.runAs(authentication, dropboxAPIService::streamTeamMembers)
+                            .filter(member -> ACTIVE.equals(member.getStatus()))
+                            .map(TeamMemberDTO::getTeamMemberId)
+                            .filter(teamMemberId -> !checkpoint.members().contains(teamMemberId));
+                    return members.flatMap(teamMemberId -> crawlMember(teamMemberId, authentication, store, crawl),
+                            parallelism);
+                })
+                .then(Mono.<Void>fromRunnable(() -> finish(teamKey, store, crawl)).subscribeOn(Schedulers.boundedElastic()))
+                .doOnCancel(store::suspendCrawl)
+                .doOnError(error -> store.suspendCrawl());
+    }
+
+    // A member whose calls fail is left out of the checkpoint, so the next crawl retries just them.
+    private Mono<Void> crawlMember(String teamMemberId, Authentication authentication, SharingInventoryStore store,
+                                   Crawl crawl) {
+        Flux<SharingEntryDTO> entries = SecurityUtils.runAs(authentication,
+                () -> dropboxAPIService.streamSharedFolders(teamMemberId)
+                        .concatWith(dropboxAPIService.streamSharedLinks(teamMemberId)));
+
+        return entries.collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(memberEntries -> {
+                    store.append(teamMemberId, memberEntries);
+                    crawl.membersCrawled.incrementAndGet();
+                    crawl.entries.addAndGet(memberEntries.size());
+                })
+                .then()
+                .onErrorResume(ex -> {
+                    log.debug("Sharing crawl of member {} failed: {}", teamMemberId, ex.getMessage());
+                    crawl.membersFailed.incrementAndGet();
+                    return Mono.empty();
+                });
+    }
+
+    private void finish(String teamKey, SharingInventoryStore store, Crawl crawl) {
+        if (crawl.membersFailed.get() > 0) {
+            store.suspendCrawl();
+            crawl.finish(SharingCrawlStatusDTO.INCOMPLETE);
+            log.warn("Sharing crawl for team {} left {} members to retry", teamKey, crawl.membersFailed.get());
+            return;
+        }
+
+        store.completeCrawl();
+        SharingInventory inventory = loadInventory(teamKey);
+        if (inventory != null) {
+            inventories.put(teamKey, inventory);
+        }
+        crawl.finish(SharingCrawlStatusDTO.COMPLETED);
+        log.info("Sharing crawl for team {} indexed {} entries of {} members in {} s", teamKey,
+                crawl.entries.get(), crawl.membersCrawled.get(),
+                Duration.between(crawl.startedAt, crawl.finishedAt).toSeconds());
+    }
+
+    private SharingInventory loadInventory(String teamKey) {
+        return store(teamKey).readInventory()
+                .map(inventory -> new SharingInventory(inventory.entries(), inventory.members(), inventory.crawledAt()))
+                .orElse(null);
+    }
+
+    private SharingInventoryStore store(String teamKey) {
+        return stores.computeIfAbsent(teamKey, key -> {
+            try {
+                return SharingInventoryStore.open(storeDirectory.resolve(safeDirectoryName(key)));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to open sharing inventory for team " + key, ex);
+            }
+        });
+    }
+
+    private static String safeDirectoryName(String teamKey) {
+        return teamKey.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    private static final class Crawl {
+
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong membersCrawled = new AtomicLong();
+        private final AtomicLong membersFailed = new AtomicLong();
+        private final AtomicLong entries = new AtomicLong();
+        private volatile String state = SharingCrawlStatusDTO.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile Disposable subscription;
+
+        boolean isRunning() {
+            return SharingCrawlStatusDTO.RUNNING.equals(state);
+        }
+
+        void resume(SharingInventoryStore.Checkpoint checkpoint) {
+            membersCrawled.addAndGet(checkpoint.members().size());
+            entries.addAndGet(checkpoint.entries());
+        }
+
+        void finish(String finalState) {
+            if (isRunning()) {
+                finishedAt = Instant.now();
+                state = finalState;
+            }
+        }
+
+        SharingCrawlStatusDTO toStatus() {
+            return new SharingCrawlStatusDTO(state, membersCrawled.get(), membersFailed.get(), entries.get(),
+                    startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.dropbox.service.impl;
+
+import com.example.dropbox.dto.SharingStatsDTO;
+import com.example.dropbox.dto.TeamEventDTO;
+import com.example.dropbox.dto.TeamEventsPageDTO;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.TeamEventService;
+import com.example.dropbox.store.EventSegmentStore;
+import com.example.dropbox.utils.SecurityUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class TeamEventServiceImpl implements TeamEventService {
+
+    private static final String SHARING_CATEGORY = "sharing";
+    private static final String SHARED_LINK_CREATE = "shared_link_create";
+
+    private final DropboxAPIService dropboxAPIService;
+    private final boolean enabled;
+    private final Path storeDirectory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxPagesPerPoll;
+    private final Duration initialLookback;
+    private final int sharingSampleSize;
+
+    private final Map<String, Authentication> trackedTeams = new ConcurrentHashMap<>();
+    private final Map<String, EventSegmentStore> stores = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public TeamEventServiceImpl(DropboxAPIService dropboxAPIService,
+                                @Value("${events.ingestion.enabled:true}") boolean enabled,
+                                @Value("${storage.base-dir:data}") Path storageBaseDir,
+                                @Value("${events.ingestion.segment-size:16MB}") DataSize segmentSize,
+                                @Value("${events.ingestion.max-segments:32}") int maxSegments,
+                                @Value("${events.ingestion.max-pages-per-poll:50}") int maxPagesPerPoll,
+                                @Value("${events.ingestion.initial-lookback:7d}") Duration initialLookback,
+                                @Value("${events.sharing-stats.sample-size:5000}") int sharingSampleSize) {
+        this.dropboxAPIService = dropboxAPIService;
+        this.enabled = enabled;
+        this.storeDirectory = storageBaseDir.resolve("events");
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.maxSegments = maxSegments;
+        this.maxPagesPerPoll = maxPagesPerPoll;
+        this.initialLookback = initialLookback;
+        this.sharingSampleSize = sharingSampleSize;
+    }
+
+    // Remembers the latest admin per team so background polls can authorize as them.
+    @Override
+    public void trackCurrentTeam() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String teamKey = SecurityUtils.teamKey(authentication);
+
+        if (enabled && teamKey != null) {
+            trackedTeams.put(teamKey, authentication);
+        }
+    }
+
+    // Only drops the team if this admin is the one it polls as; another admin's later sign-in keeps it tracked.
+    @Override
+    public void untrack(Authentication authentication) {
+        String teamKey = SecurityUtils.teamKey(authentication);
+
+        if (teamKey != null) {
+            trackedTeams.computeIfPresent(teamKey, (key, tracked) ->
+                    tracked.getName().equals(authentication.getName()) ? null : tracked);
+        }
+    }
+
+    @Override
+    public List<TeamEventDTO> getRecentEvents(int limit) {
+        String teamKey = SecurityUtils.teamKey(SecurityContextHolder.getContext().getAuthentication());
+
+        if (!enabled || teamKey == null) {
+            return List.of();
+        }
+        return store(teamKey).recent(limit);
+    }
+
+    // Derived from the locally ingested audit log; Dropbox has no sharing summary endpoint. Only the newest
+    // sample-size events are scanned, so on very busy teams the window is effectively shorter.
+    @Override
+    public SharingStatsDTO getSharingStats(Duration window) {
+        String teamKey = SecurityUtils.teamKey(SecurityContextHolder.getContext().getAuthentication());
+        // Whole minutes keep the result, and the rendered dashboard section, stable between refreshes.
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(window);
+
+        if (!enabled || teamKey == null) {
+            return new SharingStatsDTO(since, 0, 0, 0);
+        }
+
+        long sinceMillis = since.toEpochMilli();
+        long sharingEvents = 0;
+        long sharedLinksCreated = 0;
+        Set<String> sharers = new HashSet<>();
+
+        for (TeamEventDTO event : store(teamKey).recent(sharingSampleSize)) {
+            if (event.getTimestamp() < sinceMillis) {
+                break;
+            }
+            if (!SHARING_CATEGORY.equals(event.getCategory())) {
+                continue;
+            }
+            sharingEvents++;
+            if (SHARED_LINK_CREATE.equals(event.getType())) {
+                sharedLinksCreated++;
+            }
+            if (event.getActorTeamMemberId() != null) {
+                sharers.add(event.getActorTeamMemberId());
+            }
+        }
+        return new SharingStatsDTO(since, sharingEvents, sharedLinksCreated, sharers.size());
+    }
+
+    @Scheduled(fixedDelayString = "${events.ingestion.poll-interval:60s}",
+            initialDelayString = "${events.ingestion.initial-delay:10s}")
+    public void pollTrackedTeams() {
+        trackedTeams.keySet().forEach(teamKey -> {
+            try {
+                pollTeam(teamKey);
+            } catch (RuntimeException ex) {
+                log.warn("Event ingestion for team {} failed: {}", teamKey, ex.getMessage());
+            }
+        });
+    }
+
+    // Teams nobody has signed in for yet have no admin to authorize as and are skipped.
+    @Override
+    public void pollTeam(String teamKey) {
+        Authentication authentication = trackedTeams.get(teamKey);
+
+        if (authentication != null && running.add(teamKey)) {
+            // Deferred, so a store that fails to open ends up in the error handler and still frees the team.
+            Mono.defer(() -> ingest(teamKey, authentication))
+                    .doFinally(signal -> running.remove(teamKey))
+                    .subscribe(
+                            pages -> log.debug("Ingested {} event pages for team {}", pages, teamKey),
+                            error -> onIngestFailure(teamKey, authentication, error));
+        }
+    }
+
+    @PreDestroy
+    public void closeStores() {
+        stores.values().forEach(store -> {
+            try {
+                store.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close event store", ex);
+            }
+        });
+    }
+
+    // concatMap with prefetch 1 only asks Dropbox for the next page once the previous one is on disk,
+    // and the cursor is persisted after each page so an interrupted run resumes where it stopped.
+    private Mono<Long> ingest(String teamKey, Authentication authentication) {
+        EventSegmentStore store = store(teamKey);
+        String cursor = store.readCursor().orElse(null);
+        Instant startTime = Instant.now().minus(initialLookback);
+
+        Flux<TeamEventsPageDTO> pages = SecurityUtils.runAs(authentication,
+                () -> dropboxAPIService.streamTeamEvents(cursor, startTime));
+
+        return pages
+                .take(maxPagesPerPoll)
+                .concatMap(page -> Mono.fromRunnable(() -> persist(store, page))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenReturn(page), 1)
+                .count();
+    }
+
+    // A revoked grant won't come back on its own, so the team waits for an admin to sign in again.
+    private void onIngestFailure(String teamKey, Authentication authentication, Throwable error) {
+        if (isAuthorizationFailure(error) && trackedTeams.remove(teamKey, authentication)) {
+            log.info("Stopped event ingestion for team {}: authorization was rejected", teamKey);
+        } else {
+            log.warn("Event ingestion for team {} failed: {}", teamKey, error.getMessage());
+        }
+    }
+
+    private static boolean isAuthorizationFailure(Throwable error) {
+        if (error instanceof OAuth2AuthorizationException ex) {
+            return OAuth2ErrorCodes.INVALID_GRANT.equals(ex.getError().getErrorCode());
+        }
+        return error instanceof WebClientResponseException.Unauthorized;
+    }
+
+    private void persist(EventSegmentStore store, TeamEventsPageDTO page) {
+        if (page.getEvents() != null && !page.getEvents().isEmpty()) {
+            store.append(page.getEvents().stream().map(TeamEventServiceImpl::toTeamEvent).toList());
+        }
+        if (page.getCursor() != null) {
+            store.writeCursor(page.getCursor());
+        }
+    }
+
+    private EventSegmentStore store(String teamKey) {
+        return stores.computeIfAbsent(teamKey, key -> {
+            try {
+                return EventSegmentStore.open(storeDirectory.resolve(safeDirectoryName(key)), segmentSize, maxSegments);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to open event store for team " + key, ex);
+            }
+        });
+    }
+
+    private static String safeDirectoryName(String teamKey) {
+        return teamKey.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    static TeamEventDTO toTeamEvent(JsonNode event) {
+        JsonNode actor = event.path("actor");
+        JsonNode actorDetails = actor.path(actor.path(".tag").asText());
+
+        return new TeamEventDTO(
+                parseTimestamp(event.path("timestamp").asText(null)),
+                textOrNull(event.path("event_category").path(".tag")),
+                textOrNull(event.path("event_type").path(".tag")),
+                textOrNull(event.path("event_type").path("description")),
+                textOrNull(actorDetails.path("display_name")),
+                textOrNull(actorDetails.path("email")),
+                textOrNull(actorDetails.path("team_member_id")));
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        try {
+            return timestamp != null ? Instant.parse(timestamp).toEpochMilli() : 0L;
+        } catch (DateTimeParseException ex) {
+            return 0L;
+        }
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+}
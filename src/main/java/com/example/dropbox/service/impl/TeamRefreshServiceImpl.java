@@ -0,0 +1,164 @@
+package com.example.dropbox.service.impl;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.TeamEventService;
+import com.example.dropbox.service.TeamRefreshService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Debounced refresh jobs for teams Dropbox has told us about. Notifications for a team are merged
+ * into one pending job, with the affected members deduplicated, and the job runs once the team has
+ * been quiet for {@code webhook.debounce}, or at the latest {@code webhook.max-delay} after the first
+ * notification, so a burst of changes costs one refresh. Running a job marks the team's cached info,
+ * member directory and the notified members' cached profiles as expired, so the next read is served
+ * at once and reloads in the background, and polls the team's audit log right away instead of waiting
+ * for the next scheduled poll.
+ */
+@Service
+@Slf4j
+public class TeamRefreshServiceImpl implements TeamRefreshService, MeterBinder {
+
+    private final RefreshingCache<String, TeamInfoDTO> teamInfoCache;
+    private final RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache;
+    private final DropboxAPIService dropboxAPIService;
+    private final TeamEventService teamEventService;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final int maxPendingTeams;
+    private final LongSupplier clock;
+
+    private final Map<String, Job> pending = new ConcurrentHashMap<>();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+
+    @Autowired
+    public TeamRefreshServiceImpl(RefreshingCache<String, TeamInfoDTO> teamInfoCache,
+                                  RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache,
+                                  DropboxAPIService dropboxAPIService,
+                                  TeamEventService teamEventService,
+                                  @Value("${webhook.debounce:5s}") Duration debounce,
+                                  @Value("${webhook.max-delay:30s}") Duration maxDelay,
+                                  @Value("${webhook.max-pending-teams:10000}") int maxPendingTeams) {
+        this(teamInfoCache, memberDirectoryCache, dropboxAPIService, teamEventService, debounce, maxDelay,
+                maxPendingTeams, System::currentTimeMillis);
+    }
+
+    public TeamRefreshServiceImpl(RefreshingCache<String, TeamInfoDTO> teamInfoCache,
+                                  RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache,
+                                  DropboxAPIService dropboxAPIService, TeamEventService teamEventService,
+                                  Duration debounce, Duration maxDelay, int maxPendingTeams, LongSupplier clock) {
+        this.teamInfoCache = teamInfoCache;
+        this.memberDirectoryCache = memberDirectoryCache;
+        this.dropboxAPIService = dropboxAPIService;
+        this.teamEventService = teamEventService;
+        this.debounceMillis = debounce.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.maxPendingTeams = maxPendingTeams;
+        this.clock = clock;
+    }
+
+    @Override
+    public void enqueue(String teamKey, Collection<String> teamMemberIds) {
+        long now = clock.getAsLong();
+
+        pending.compute(teamKey, (key, job) -> {
+            if (job == null) {
+                if (pending.size() >= maxPendingTeams) {
+                    dropped.increment();
+                    return null;
+                }
+                queued.increment();
+                job = new Job(now);
+            } else {
+                coalesced.increment();
+            }
+            job.lastNotifiedAt = now;
+            job.members.addAll(teamMemberIds);
+            return job;
+        });
+    }
+
+    @Override
+    public int pendingTeams() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.dispatch-interval:1s}")
+    public void dispatchDue() {
+        long now = clock.getAsLong();
+
+        pending.forEach((teamKey, job) -> {
+            if (job.isDue(now, debounceMillis, maxDelayMillis) && pending.remove(teamKey, job)) {
+                refresh(teamKey, job);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCounter(registry, queued, "queued");
+        bindCounter(registry, coalesced, "coalesced");
+        bindCounter(registry, dropped, "dropped");
+        bindCounter(registry, dispatched, "dispatched");
+        Gauge.builder("dropbox.webhook.pending", pending, Map::size)
+                .register(registry);
+    }
+
+    private void refresh(String teamKey, Job job) {
+        dispatched.increment();
+        log.debug("Refreshing team {} after changes for {} members", teamKey, job.members.size());
+
+        teamInfoCache.expire(teamKey);
+        memberDirectoryCache.expire(teamKey);
+        dropboxAPIService.expireMembers(teamKey, job.members);
+        try {
+            teamEventService.pollTeam(teamKey);
+        } catch (RuntimeException ex) {
+            log.warn("Event poll for team {} failed: {}", teamKey, ex.getMessage());
+        }
+    }
+
+    private static void bindCounter(MeterRegistry registry, LongAdder counter, String result) {
+        FunctionCounter.builder("dropbox.webhook.jobs", counter, LongAdder::sum)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Job {
+
+        private final long firstNotifiedAt;
+        private final Set<String> members = new HashSet<>();
+        private volatile long lastNotifiedAt;
+
+        private Job(long firstNotifiedAt) {
+            this.firstNotifiedAt = firstNotifiedAt;
+            this.lastNotifiedAt = firstNotifiedAt;
+        }
+
+        private boolean isDue(long now, long debounceMillis, long maxDelayMillis) {
+            return now - lastNotifiedAt >= debounceMillis || now - firstNotifiedAt >= maxDelayMillis;
+        }
+    }
+}
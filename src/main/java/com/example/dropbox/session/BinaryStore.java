@@ -0,0 +1,20 @@
+package com.example.dropbox.session;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Key/value store for encoded sessions and authorized clients. Values are opaque byte arrays; a
+ * {@code put} replaces the previous value atomically.
+ */
+public interface BinaryStore {
+
+    byte[] get(String key);
+
+    void put(String key, byte[] value);
+
+    void remove(String key);
+
+    void forEach(BiConsumer<String, byte[]> action);
+
+    long totalBytes();
+}
@@ -0,0 +1,153 @@
+package com.example.dropbox.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Authorized-client service that stores only token values, timestamps and scopes per
+ * (registration, principal). The client registration is re-attached from the repository on load, so
+ * a stored record stays valid across restarts as long as the registration id does.
+ */
+@Slf4j
+public class CompactOAuth2AuthorizedClientService implements OAuth2AuthorizedClientService {
+
+    private static final byte VERSION = 1;
+
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final BinaryStore store;
+
+    public CompactOAuth2AuthorizedClientService(ClientRegistrationRepository clientRegistrationRepository,
+                                                BinaryStore store) {
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.store = store;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, String principalName) {
+        byte[] encoded = store.get(key(clientRegistrationId, principalName));
+        return encoded != null ? (T) decode(encoded) : null;
+    }
+
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+        String registrationId = authorizedClient.getClientRegistration().getRegistrationId();
+        store.put(key(registrationId, principal.getName()), encode(authorizedClient));
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+        store.remove(key(clientRegistrationId, principalName));
+    }
+
+    // Every stored client whose registration still exists; used by jobs that walk all signed-in admins.
+    public List<OAuth2AuthorizedClient> loadAll() {
+        List<OAuth2AuthorizedClient> clients = new ArrayList<>();
+        store.forEach((key, encoded) -> {
+            OAuth2AuthorizedClient client = decode(encoded);
+            if (client != null) {
+                clients.add(client);
+            }
+        });
+        return clients;
+    }
+
+    private static String key(String clientRegistrationId, String principalName) {
+        return clientRegistrationId + ":" + principalName;
+    }
+
+    private static byte[] encode(OAuth2AuthorizedClient client) {
+        OAuth2AccessToken accessToken = client.getAccessToken();
+        OAuth2RefreshToken refreshToken = client.getRefreshToken();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            SessionCodec.writeString(out, client.getClientRegistration().getRegistrationId());
+            SessionCodec.writeString(out, client.getPrincipalName());
+
+            SessionCodec.writeString(out, accessToken.getTokenValue());
+            writeInstant(out, accessToken.getIssuedAt());
+            writeInstant(out, accessToken.getExpiresAt());
+            out.writeShort(accessToken.getScopes().size());
+            for (String scope : accessToken.getScopes()) {
+                SessionCodec.writeString(out, scope);
+            }
+
+            out.writeBoolean(refreshToken != null);
+            if (refreshToken != null) {
+                SessionCodec.writeString(out, refreshToken.getTokenValue());
+                writeInstant(out, refreshToken.getIssuedAt());
+                writeInstant(out, refreshToken.getExpiresAt());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private OAuth2AuthorizedClient decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported authorized client record version " + version);
+            }
+            String registrationId = SessionCodec.readString(in);
+            String principalName = SessionCodec.readString(in);
+
+            String accessTokenValue = SessionCodec.readString(in);
+            Instant accessIssuedAt = readInstant(in);
+            Instant accessExpiresAt = readInstant(in);
+            int scopeCount = in.readUnsignedShort();
+            Set<String> scopes = new LinkedHashSet<>(scopeCount);
+            for (int i = 0; i < scopeCount; i++) {
+                scopes.add(SessionCodec.readString(in));
+            }
+
+            OAuth2RefreshToken refreshToken = null;
+            if (in.readBoolean()) {
+                refreshToken = new OAuth2RefreshToken(SessionCodec.readString(in), readInstant(in), readInstant(in));
+            }
+
+            ClientRegistration registration = clientRegistrationRepository.findByRegistrationId(registrationId);
+            if (registration == null) {
+                log.debug("Ignoring authorized client for unknown registration {}", registrationId);
+                return null;
+            }
+            OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                    accessTokenValue, accessIssuedAt, accessExpiresAt, scopes);
+            return new OAuth2AuthorizedClient(registration, principalName, accessToken, refreshToken);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Corrupt authorized client record", ex);
+        }
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeLong(instant != null ? instant.toEpochMilli() : Long.MIN_VALUE);
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        long millis = in.readLong();
+        return millis != Long.MIN_VALUE ? Instant.ofEpochMilli(millis) : null;
+    }
+}
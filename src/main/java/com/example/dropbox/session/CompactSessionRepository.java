@@ -0,0 +1,176 @@
+package com.example.dropbox.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Spring Session repository that keeps sessions as {@link SessionCodec} records in a {@link BinaryStore}.
+ * A session is re-encoded only when its attributes change, or when its last access time has moved on by
+ * more than {@code touchInterval}. Expiry can therefore lag by at most that interval.
+ */
+@Slf4j
+public class CompactSessionRepository implements SessionRepository<CompactSessionRepository.CompactSession> {
+
+    private final BinaryStore store;
+    private final Duration defaultMaxInactiveInterval;
+    private final Duration touchInterval;
+
+    public CompactSessionRepository(BinaryStore store, Duration defaultMaxInactiveInterval, Duration touchInterval) {
+        this.store = store;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.touchInterval = touchInterval;
+    }
+
+    @Override
+    public CompactSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new CompactSession(session, null);
+    }
+
+    @Override
+    public void save(CompactSession session) {
+        if (session.originalId != null && !session.originalId.equals(session.getId())) {
+            store.remove(session.originalId);
+        }
+        if (session.dirty || session.touchDue()) {
+            store.put(session.getId(), SessionCodec.encode(session.delegate));
+            session.markPersisted();
+        }
+    }
+
+    @Override
+    public CompactSession findById(String id) {
+        byte[] encoded = store.get(id);
+        if (encoded == null) {
+            return null;
+        }
+        MapSession session = SessionCodec.decode(encoded);
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new CompactSession(session, id);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.remove(id);
+    }
+
+    @Scheduled(fixedDelayString = "${session.store.cleanup-interval:5m}",
+            initialDelayString = "${session.store.cleanup-interval:5m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        List<String> expired = new ArrayList<>();
+
+        store.forEach((id, encoded) -> {
+            if (SessionCodec.isExpired(encoded, now)) {
+                expired.add(id);
+            }
+        });
+        expired.forEach(store::remove);
+
+        if (!expired.isEmpty()) {
+            log.debug("Purged {} expired sessions", expired.size());
+        }
+    }
+
+    public final class CompactSession implements Session {
+
+        private final MapSession delegate;
+        private String originalId;
+        private Instant persistedAccessTime;
+        private boolean dirty;
+
+        private CompactSession(MapSession delegate, String persistedId) {
+            this.delegate = delegate;
+            this.originalId = persistedId;
+            this.persistedAccessTime = delegate.getLastAccessedTime();
+            this.dirty = persistedId == null;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            dirty = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            dirty = true;
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            dirty = true;
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            dirty = true;
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+
+        private boolean touchDue() {
+            return Duration.between(persistedAccessTime, delegate.getLastAccessedTime()).compareTo(touchInterval) >= 0;
+        }
+
+        private void markPersisted() {
+            originalId = delegate.getId();
+            persistedAccessTime = delegate.getLastAccessedTime();
+            dirty = false;
+        }
+    }
+}
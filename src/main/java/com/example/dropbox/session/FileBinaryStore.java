@@ -0,0 +1,112 @@
+package com.example.dropbox.session;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * One file per key under a local directory. Keys are stored as URL-safe Base64 file names so they can
+ * be listed back, and each write goes to a temp file that is moved into place, so readers never see a
+ * partial value. Temp files are created owner-only since values can hold access tokens.
+ */
+@Slf4j
+public class FileBinaryStore implements BinaryStore {
+
+    private static final String SUFFIX = ".bin";
+    private static final Base64.Encoder KEY_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder KEY_DECODER = Base64.getUrlDecoder();
+
+    private final Path directory;
+
+    public FileBinaryStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create store directory " + directory, ex);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return Files.readAllBytes(path(key));
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read " + path(key), ex);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        Path target = path(key);
+        try {
+            Path temp = Files.createTempFile(directory, "write-", ".tmp");
+            Files.write(temp, value);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write " + target, ex);
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to delete " + path(key), ex);
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, byte[]> action) {
+        for (Path file : files()) {
+            String key = key(file);
+            byte[] value = get(key);
+            if (value != null) {
+                action.accept(key, value);
+            }
+        }
+    }
+
+    @Override
+    public long totalBytes() {
+        long total = 0;
+        for (Path file : files()) {
+            try {
+                total += Files.size(file);
+            } catch (IOException ex) {
+                log.debug("Skipping {} while sizing store: {}", file, ex.getMessage());
+            }
+        }
+        return total;
+    }
+
+    private List<Path> files() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to list " + directory, ex);
+        }
+    }
+
+    private Path path(String key) {
+        return directory.resolve(KEY_ENCODER.encodeToString(key.getBytes(StandardCharsets.UTF_8)) + SUFFIX);
+    }
+
+    private static String key(Path file) {
+        String name = file.getFileName().toString();
+        return new String(KEY_DECODER.decode(name.substring(0, name.length() - SUFFIX.length())), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.dropbox.session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+public class MemoryBinaryStore implements BinaryStore {
+
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] get(String key) {
+        return values.get(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void remove(String key) {
+        values.remove(key);
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, byte[]> action) {
+        values.forEach(action);
+    }
+
+    @Override
+    public long totalBytes() {
+        return values.values().stream().mapToLong(value -> value.length).sum();
+    }
+}
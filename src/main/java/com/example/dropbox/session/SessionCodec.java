@@ -0,0 +1,203 @@
+package com.example.dropbox.session;
+
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.session.MapSession;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Binary session format. A fixed header (creation, last access, max inactive) is followed by the
+ * attributes. The security context of a signed-in admin is written field by field. Strings are written
+ * as UTF-8. Anything else falls back to Java serialization.
+ */
+public final class SessionCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_ADMIN_CONTEXT = 2;
+    private static final byte TAG_SERIALIZED = 3;
+
+    // version + three longs precede the id
+    private static final int LAST_ACCESSED_OFFSET = 1 + Long.BYTES;
+    private static final int MAX_INACTIVE_OFFSET = LAST_ACCESSED_OFFSET + Long.BYTES;
+
+    private SessionCodec() {
+    }
+
+    public static byte[] encode(MapSession session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(session.getCreationTime().toEpochMilli());
+            out.writeLong(session.getLastAccessedTime().toEpochMilli());
+            out.writeLong(session.getMaxInactiveInterval().toSeconds());
+            writeString(out, session.getId());
+            out.writeShort(session.getAttributeNames().size());
+            for (String name : session.getAttributeNames()) {
+                writeString(out, name);
+                writeAttribute(out, session.getAttribute(name));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static MapSession decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            checkVersion(in.readByte());
+            long creationTime = in.readLong();
+            long lastAccessedTime = in.readLong();
+            long maxInactiveSeconds = in.readLong();
+
+            MapSession session = new MapSession(readString(in));
+            session.setCreationTime(Instant.ofEpochMilli(creationTime));
+            session.setLastAccessedTime(Instant.ofEpochMilli(lastAccessedTime));
+            session.setMaxInactiveInterval(Duration.ofSeconds(maxInactiveSeconds));
+
+            int attributes = in.readUnsignedShort();
+            for (int i = 0; i < attributes; i++) {
+                session.setAttribute(readString(in), readAttribute(in));
+            }
+            return session;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Corrupt session record", ex);
+        }
+    }
+
+    // Reads only the header, so expired sessions can be purged without decoding their attributes.
+    public static boolean isExpired(byte[] encoded, Instant now) {
+        ByteBuffer header = ByteBuffer.wrap(encoded);
+        checkVersion(header.get(0));
+        long maxInactiveSeconds = header.getLong(MAX_INACTIVE_OFFSET);
+        if (maxInactiveSeconds < 0) {
+            return false;
+        }
+        Instant lastAccessed = Instant.ofEpochMilli(header.getLong(LAST_ACCESSED_OFFSET));
+        return now.isAfter(lastAccessed.plusSeconds(maxInactiveSeconds));
+    }
+
+    private static void writeAttribute(DataOutput out, Object value) throws IOException {
+        if (value instanceof String string) {
+            out.writeByte(TAG_STRING);
+            writeString(out, string);
+        } else if (isAdminContext(value)) {
+            OAuth2AuthenticationToken token = (OAuth2AuthenticationToken) ((SecurityContext) value).getAuthentication();
+            DropboxAdminPrincipal principal = (DropboxAdminPrincipal) token.getPrincipal();
+            WebAuthenticationDetails details = (WebAuthenticationDetails) token.getDetails();
+
+            out.writeByte(TAG_ADMIN_CONTEXT);
+            writeString(out, token.getAuthorizedClientRegistrationId());
+            writeString(out, principal.getTeamMemberId());
+            writeString(out, principal.getEmail());
+            writeString(out, principal.getDisplayName());
+            writeString(out, principal.getTeamId());
+            writeString(out, details != null ? details.getRemoteAddress() : null);
+            writeString(out, details != null ? details.getSessionId() : null);
+        } else {
+            out.writeByte(TAG_SERIALIZED);
+            byte[] serialized = serialize(value);
+            out.writeInt(serialized.length);
+            out.write(serialized);
+        }
+    }
+
+    private static Object readAttribute(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_STRING:
+                return readString(in);
+            case TAG_ADMIN_CONTEXT: {
+                String registrationId = readString(in);
+                DropboxAdminPrincipal principal = new DropboxAdminPrincipal(
+                        readString(in), readString(in), readString(in), readString(in));
+                String remoteAddress = readString(in);
+                String detailsSessionId = readString(in);
+
+                OAuth2AuthenticationToken token =
+                        new OAuth2AuthenticationToken(principal, principal.getAuthorities(), registrationId);
+                if (remoteAddress != null || detailsSessionId != null) {
+                    token.setDetails(new WebAuthenticationDetails(remoteAddress, detailsSessionId));
+                }
+                return new SecurityContextImpl(token);
+            }
+            case TAG_SERIALIZED: {
+                byte[] serialized = new byte[in.readInt()];
+                in.readFully(serialized);
+                return deserialize(serialized);
+            }
+            default:
+                throw new IOException("Unknown attribute tag " + tag);
+        }
+    }
+
+    // Only the exact shape produced by oauth2Login is written compactly; anything customized keeps
+    // full fidelity through serialization.
+    private static boolean isAdminContext(Object value) {
+        return value instanceof SecurityContext context
+                && context.getAuthentication() instanceof OAuth2AuthenticationToken token
+                && token.getPrincipal() instanceof DropboxAdminPrincipal principal
+                && token.getAuthorities().equals(principal.getAuthorities())
+                && (token.getDetails() == null || token.getDetails().getClass() == WebAuthenticationDetails.class);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void checkVersion(byte version) {
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported session record version " + version);
+        }
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] serialized) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Unknown session attribute class", ex);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.dto.TeamEventDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Append-only event log made of fixed-size, memory-mapped segment files. Each record is written as
+ * {@code [int length][payload]}; the length is written after the payload so a torn write is never
+ * read back. A zero length marks the end of a segment. The ingestion cursor is kept next to the
+ * segments and replaced atomically.
+ */
+@Slf4j
+public class EventSegmentStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CURSOR_FILE = "cursor";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private EventSegmentStore(Path directory, int segmentSize, int maxSegments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    public static EventSegmentStore open(Path directory, int segmentSize, int maxSegments) throws IOException {
+        Files.createDirectories(directory);
+        EventSegmentStore store = new EventSegmentStore(directory, segmentSize, maxSegments);
+
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path path : existing) {
+            store.segments.addLast(Segment.open(path, segmentId(path), segmentSize));
+        }
+        if (store.segments.isEmpty()) {
+            store.segments.addLast(Segment.open(store.segmentPath(0), 0, segmentSize));
+        }
+
+        log.debug("Opened event store {} with {} segments and {} events",
+                directory, store.segments.size(), store.size());
+        return store;
+    }
+
+    public synchronized void append(List<TeamEventDTO> events) {
+        for (TeamEventDTO event : events) {
+            byte[] payload = encode(event);
+            if (payload.length + Integer.BYTES > segmentSize) {
+                log.warn("Skipping event larger than segment size: {} bytes", payload.length);
+                continue;
+            }
+            if (!segments.getLast().append(payload)) {
+                roll();
+                segments.getLast().append(payload);
+            }
+        }
+        segments.getLast().buffer.force();
+    }
+
+    public synchronized List<TeamEventDTO> recent(int limit) {
+        List<TeamEventDTO> events = new ArrayList<>(limit);
+        Iterator<Segment> newestFirst = segments.descendingIterator();
+
+        while (newestFirst.hasNext() && events.size() < limit) {
+            Segment segment = newestFirst.next();
+            for (int i = segment.count - 1; i >= 0 && events.size() < limit; i--) {
+                events.add(decode(segment.read(i)));
+            }
+        }
+        return events;
+    }
+
+    public synchronized long size() {
+        return segments.stream().mapToLong(segment -> segment.count).sum();
+    }
+
+    public Optional<String> readCursor() {
+        Path cursorPath = directory.resolve(CURSOR_FILE);
+        try {
+            if (!Files.exists(cursorPath)) {
+                return Optional.empty();
+            }
+            String cursor = Files.readString(cursorPath, StandardCharsets.UTF_8).trim();
+            return cursor.isEmpty() ? Optional.empty() : Optional.of(cursor);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read cursor from " + cursorPath, ex);
+        }
+    }
+
+    public void writeCursor(String cursor) {
+        Path cursorPath = directory.resolve(CURSOR_FILE);
+        Path tempPath = directory.resolve(CURSOR_FILE + ".tmp");
+        try {
+            Files.writeString(tempPath, cursor, StandardCharsets.UTF_8);
+            Files.move(tempPath, cursorPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write cursor to " + cursorPath, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private void roll() {
+        Segment current = segments.getLast();
+        current.buffer.force();
+
+        try {
+            segments.addLast(Segment.open(segmentPath(current.id + 1), current.id + 1, segmentSize));
+            while (segments.size() > maxSegments) {
+                Segment oldest = segments.removeFirst();
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to roll event segment in " + directory, ex);
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(TeamEventDTO event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(event.getTimestamp());
+            writeString(out, event.getCategory());
+            writeString(out, event.getType());
+            writeString(out, event.getDescription());
+            writeString(out, event.getActorName());
+            writeString(out, event.getActorEmail());
+            writeString(out, event.getActorTeamMemberId());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, Short.MAX_VALUE);
+        out.writeShort(length);
+        out.write(utf8, 0, length);
+    }
+
+    private static TeamEventDTO decode(ByteBuffer record) {
+        return new TeamEventDTO(record.getLong(), readString(record), readString(record), readString(record),
+                readString(record), readString(record), readString(record));
+    }
+
+    static String readString(ByteBuffer record) {
+        short length = record.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        record.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int[] offsets = new int[1024];
+        private int count;
+        private int position;
+
+        private Segment(Path path, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.recover();
+            return segment;
+        }
+
+        private void recover() {
+            int capacity = buffer.capacity();
+            while (position + Integer.BYTES <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + Integer.BYTES + length > capacity) {
+                    break;
+                }
+                addOffset(position);
+                position += Integer.BYTES + length;
+            }
+        }
+
+        boolean append(byte[] payload) {
+            int recordEnd = position + Integer.BYTES + payload.length;
+            if (recordEnd > buffer.capacity()) {
+                return false;
+            }
+            buffer.put(position + Integer.BYTES, payload);
+            buffer.putInt(position, payload.length);
+            addOffset(position);
+            position = recordEnd;
+            return true;
+        }
+
+        ByteBuffer read(int index) {
+            int offset = offsets[index];
+            int length = buffer.getInt(offset);
+            return buffer.slice(offset + Integer.BYTES, length);
+        }
+
+        private void addOffset(int offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.dto.SharingEntryDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A team's sharing inventory on disk. A crawl appends one record per member to {@code crawl.log}, and
+ * that record is also the checkpoint: a crawl that stops part-way resumes with the members that are
+ * not in the file yet. A finished crawl replaces {@code inventory.log} atomically, so readers always
+ * see a complete inventory. Records are {@code [int length][int crc32][payload]}; a torn record at the
+ * end of the crawl file is cut off on resume.
+ */
+@Slf4j
+public class SharingInventoryStore implements Closeable {
+
+    private static final String CRAWL_FILE = "crawl.log";
+    private static final String INVENTORY_FILE = "inventory.log";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private FileChannel crawl;
+
+    private SharingInventoryStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SharingInventoryStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new SharingInventoryStore(directory);
+    }
+
+    public boolean hasCheckpoint() {
+        return Files.exists(directory.resolve(CRAWL_FILE));
+    }
+
+    /**
+     * Opens the crawl file for appending, continuing an interrupted crawl if there is one, and returns
+     * what that crawl already covered.
+     */
+    public synchronized Checkpoint beginCrawl() {
+        Path crawlPath = directory.resolve(CRAWL_FILE);
+        Set<String> members = new HashSet<>();
+        long[] entries = new long[1];
+        try {
+            crawl = FileChannel.open(crawlPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long valid = read(crawl, (teamMemberId, memberEntries) -> {
+                members.add(teamMemberId);
+                entries[0] += memberEntries.size();
+            });
+            if (valid < crawl.size()) {
+                log.warn("Discarding {} bytes of a torn record in {}", crawl.size() - valid, crawlPath);
+                crawl.truncate(valid);
+            }
+            crawl.position(valid);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open sharing crawl in " + directory, ex);
+        }
+        return new Checkpoint(Set.copyOf(members), entries[0]);
+    }
+
+    public synchronized void append(String teamMemberId, List<SharingEntryDTO> entries) {
+        if (crawl == null) {
+            throw new IllegalStateException("No crawl in progress in " + directory);
+        }
+        byte[] payload = encode(teamMemberId, entries);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        try {
+            while (record.hasRemaining()) {
+                crawl.write(record);
+            }
+            crawl.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to checkpoint sharing crawl in " + directory, ex);
+        }
+    }
+
+    // Publishes the crawl as the team's inventory.
+    public synchronized void completeCrawl() {
+        closeCrawl();
+        try {
+            Files.move(directory.resolve(CRAWL_FILE), directory.resolve(INVENTORY_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to publish sharing inventory in " + directory, ex);
+        }
+    }
+
+    // Stops appending but keeps the crawl file, so the next crawl resumes from it.
+    public synchronized void suspendCrawl() {
+        closeCrawl();
+    }
+
+    public Optional<Inventory> readInventory() {
+        Path inventoryPath = directory.resolve(INVENTORY_FILE);
+        if (!Files.exists(inventoryPath)) {
+            return Optional.empty();
+        }
+        List<SharingEntryDTO> entries = new ArrayList<>();
+        int[] members = new int[1];
+        try (FileChannel channel = FileChannel.open(inventoryPath, StandardOpenOption.READ)) {
+            read(channel, (teamMemberId, memberEntries) -> {
+                members[0]++;
+                entries.addAll(memberEntries);
+            });
+            return Optional.of(new Inventory(members[0], entries, Files.getLastModifiedTime(inventoryPath).toInstant()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read sharing inventory from " + inventoryPath, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeCrawl();
+    }
+
+    private void closeCrawl() {
+        if (crawl == null) {
+            return;
+        }
+        try {
+            crawl.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close sharing crawl in {}", directory, ex);
+        }
+        crawl = null;
+    }
+
+    // Returns the length of the valid prefix of the file.
+    private static long read(FileChannel channel, BiConsumer<String, List<SharingEntryDTO>> consumer) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32 crc = new CRC32();
+
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                return start;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            decode(payload, consumer);
+            buffer.position(buffer.position() + length);
+        }
+        return buffer.position();
+    }
+
+    private static byte[] encode(String teamMemberId, List<SharingEntryDTO> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entries.size() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            EventSegmentStore.writeString(out, teamMemberId);
+            out.writeInt(entries.size());
+            for (SharingEntryDTO entry : entries) {
+                EventSegmentStore.writeString(out, entry.getKind());
+                EventSegmentStore.writeString(out, entry.getId());
+                EventSegmentStore.writeString(out, entry.getName());
+                EventSegmentStore.writeString(out, entry.getPath());
+                EventSegmentStore.writeString(out, entry.getAccess());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decode(ByteBuffer payload, BiConsumer<String, List<SharingEntryDTO>> consumer) {
+        String teamMemberId = EventSegmentStore.readString(payload);
+        int count = payload.getInt();
+        List<SharingEntryDTO> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new SharingEntryDTO(EventSegmentStore.readString(payload), teamMemberId,
+                    EventSegmentStore.readString(payload), EventSegmentStore.readString(payload),
+                    EventSegmentStore.readString(payload), EventSegmentStore.readString(payload)));
+        }
+        consumer.accept(teamMemberId, entries);
+    }
+
+    public record Checkpoint(Set<String> members, long entries) {
+    }
+
+    public record Inventory(int members, List<SharingEntryDTO> entries, Instant crawledAt) {
+    }
+}
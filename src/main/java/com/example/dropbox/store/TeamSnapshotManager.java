@@ -0,0 +1,196 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.TeamInfoDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts nodes warm: cached team info and member directories are restored from their snapshots
+ * before the first request, with their original load times, so the usual TTL rules serve them and
+ * refresh stale ones in the background. Every value the caches load afterwards is written back on
+ * the next flush, only for the teams and sections that changed. Snapshots older than
+ * {@code snapshot.max-age} are dropped.
+ */
+@Slf4j
+@Component
+public class TeamSnapshotManager implements MeterBinder {
+
+    private final RefreshingCache<String, TeamInfoDTO> teamInfoCache;
+    private final RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxAgeMillis;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // Load time of the data in each snapshot on disk, by section and team.
+    private final Map<String, Long> snapshotLoadedAt = new ConcurrentHashMap<>();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private volatile long loadNanos;
+    private TeamSnapshotStore store;
+
+    public TeamSnapshotManager(RefreshingCache<String, TeamInfoDTO> teamInfoCache,
+                               RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache,
+                               @Value("${snapshot.enabled:true}") boolean enabled,
+                               @Value("${storage.base-dir:data}") Path storageBaseDir,
+                               @Value("${snapshot.max-age:7d}") Duration maxAge) {
+        this.teamInfoCache = teamInfoCache;
+        this.memberDirectoryCache = memberDirectoryCache;
+        this.enabled = enabled;
+        this.directory = storageBaseDir.resolve("snapshots");
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            store = TeamSnapshotStore.open(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open snapshot store in " + directory, ex);
+        }
+
+        long started = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long bytes = 0;
+        for (Path path : store.list()) {
+            TeamSnapshotStore.Snapshot snapshot = store.read(path).orElse(null);
+            if (snapshot == null) {
+                continue;
+            }
+            if (now - snapshot.loadedAt() > maxAgeMillis) {
+                store.delete(path);
+                continue;
+            }
+            try {
+                switch (snapshot.section()) {
+                    case TeamSnapshotStore.TEAM_INFO -> teamInfoCache.restore(snapshot.teamKey(),
+                            TeamSnapshotStore.decodeTeamInfo(snapshot.payload()), snapshot.loadedAt());
+                    case TeamSnapshotStore.MEMBERS -> memberDirectoryCache.restore(snapshot.teamKey(),
+                            TeamSnapshotStore.decodeMembers(snapshot.payload()), snapshot.loadedAt());
+                    default -> {
+                        continue;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Skipping corrupt snapshot {}: {}", path, ex.toString());
+                continue;
+            }
+            snapshotLoadedAt.put(key(snapshot.section(), snapshot.teamKey()), snapshot.loadedAt());
+            bytes += snapshot.fileSize();
+        }
+        loadNanos = System.nanoTime() - started;
+
+        log.info("Restored {} team snapshots ({} KB) in {} ms, oldest {} min old", snapshotLoadedAt.size(),
+                bytes / 1024, TimeUnit.NANOSECONDS.toMillis(loadNanos), ageMillis() / 60_000);
+
+        teamInfoCache.setLoadListener((teamKey, teamInfo, loadedAt) ->
+                schedule(TeamSnapshotStore.TEAM_INFO, teamKey, loadedAt, teamInfo));
+        memberDirectoryCache.setLoadListener((teamKey, members, loadedAt) ->
+                schedule(TeamSnapshotStore.MEMBERS, teamKey, loadedAt, members));
+    }
+
+    // Batches writes: a team whose data is reloaded several times between flushes is written once.
+    @Scheduled(fixedDelayString = "${snapshot.flush-interval:30s}",
+            initialDelayString = "${snapshot.flush-interval:30s}")
+    public void flush() {
+        if (!enabled || store == null) {
+            return;
+        }
+        for (String key : pending.keySet()) {
+            Pending update = pending.remove(key);
+            if (update == null) {
+                continue;
+            }
+            try {
+                store.write(update.section(), update.teamKey(), update.loadedAt(), update.encode());
+                snapshotLoadedAt.put(key, update.loadedAt());
+                writes.increment();
+            } catch (RuntimeException ex) {
+                writeFailures.increment();
+                log.warn("Failed to snapshot {} of team {}: {}", update.section(), update.teamKey(), ex.getMessage());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        snapshotLoadedAt.forEach((key, loadedAt) -> {
+            if (now - loadedAt > maxAgeMillis && snapshotLoadedAt.remove(key, loadedAt)) {
+                String[] parts = key.split("\\|", 2);
+                store.delete(parts[0], parts[1]);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dropbox.snapshot.age", this, manager -> manager.ageMillis() / 1000.0)
+                .description("Age of the oldest data held in team snapshots")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("dropbox.snapshot.entries", snapshotLoadedAt, Map::size)
+                .description("Team snapshot files on disk")
+                .register(registry);
+        TimeGauge.builder("dropbox.snapshot.load.time", this, TimeUnit.NANOSECONDS, manager -> manager.loadNanos)
+                .description("Time taken to restore the caches from snapshots at startup")
+                .register(registry);
+        FunctionCounter.builder("dropbox.snapshot.writes", writes, LongAdder::sum)
+                .tag("result", "success")
+                .register(registry);
+        FunctionCounter.builder("dropbox.snapshot.writes", writeFailures, LongAdder::sum)
+                .tag("result", "failure")
+                .register(registry);
+    }
+
+    private void schedule(String section, String teamKey, long loadedAt, Object value) {
+        pending.put(key(section, teamKey), new Pending(section, teamKey, loadedAt, value));
+    }
+
+    long ageMillis() {
+        long now = System.currentTimeMillis();
+        return snapshotLoadedAt.values().stream().mapToLong(loadedAt -> now - loadedAt).max().orElse(0);
+    }
+
+    private static String key(String section, String teamKey) {
+        return section + "|" + teamKey;
+    }
+
+    private record Pending(String section, String teamKey, long loadedAt, Object value) {
+
+        byte[] encode() {
+            if (value instanceof TeamInfoDTO teamInfo) {
+                return TeamSnapshotStore.encodeTeamInfo(teamInfo);
+            }
+            if (value instanceof TeamMemberDirectory directory) {
+                return TeamSnapshotStore.encodeMembers(directory);
+            }
+            throw new IllegalStateException("No snapshot format for " + value.getClass());
+        }
+    }
+}
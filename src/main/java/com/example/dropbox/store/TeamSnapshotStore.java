@@ -0,0 +1,192 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots of Dropbox-derived team data, one file per team and section (team info, member
+ * directory), so a changed section is rewritten without touching the others. Files are written to a
+ * temp file and renamed, and read back through a read-only memory map. Layout:
+ * {@code [int magic][short version][string section][string teamKey][long loadedAt][int length][payload]},
+ * strings as in {@link EventSegmentStore}. Files with another magic or version, or that are cut short,
+ * are skipped.
+ */
+@Slf4j
+public class TeamSnapshotStore {
+
+    public static final String TEAM_INFO = "team-info";
+    public static final String MEMBERS = "members";
+
+    private static final int MAGIC = 0x44425853;
+    private static final short VERSION = 1;
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+
+    private TeamSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static TeamSnapshotStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new TeamSnapshotStore(directory);
+    }
+
+    /**
+     * Writes the section and returns the size of the file.
+     */
+    public long write(String section, String teamKey, long loadedAt, byte[] payload) {
+        Path path = path(section, teamKey);
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            EventSegmentStore.writeString(out, section);
+            EventSegmentStore.writeString(out, teamKey);
+            out.writeLong(loadedAt);
+            out.writeInt(payload.length);
+            out.write(payload);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        try {
+            Files.write(tempPath, bytes.toByteArray());
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write snapshot " + path, ex);
+        }
+        return bytes.size();
+    }
+
+    public List<Path> list() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to list snapshots in " + directory, ex);
+        }
+    }
+
+    // The payload is a view of the mapped file; decode it before the snapshot is dropped.
+    public Optional<Snapshot> read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                log.warn("Skipping snapshot {} with an unknown format", path);
+                return Optional.empty();
+            }
+            String section = EventSegmentStore.readString(buffer);
+            String teamKey = EventSegmentStore.readString(buffer);
+            long loadedAt = buffer.getLong();
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                log.warn("Skipping truncated snapshot {}", path);
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(section, teamKey, loadedAt, buffer.slice(buffer.position(), length),
+                    channel.size()));
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Skipping unreadable snapshot {}: {}", path, ex.toString());
+            return Optional.empty();
+        }
+    }
+
+    public void delete(String section, String teamKey) {
+        delete(path(section, teamKey));
+    }
+
+    public void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete snapshot {}", path, ex);
+        }
+    }
+
+    public static byte[] encodeTeamInfo(TeamInfoDTO teamInfo) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            EventSegmentStore.writeString(out, teamInfo.getName());
+            EventSegmentStore.writeString(out, teamInfo.getTeamId());
+            writeInteger(out, teamInfo.getNumLicensedUsers());
+            writeInteger(out, teamInfo.getNumProvisionedUsers());
+            writeInteger(out, teamInfo.getNumUsedLicenses());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TeamInfoDTO decodeTeamInfo(ByteBuffer payload) {
+        return new TeamInfoDTO(EventSegmentStore.readString(payload), EventSegmentStore.readString(payload),
+                readInteger(payload), readInteger(payload), readInteger(payload));
+    }
+
+    public static byte[] encodeMembers(TeamMemberDirectory directory) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + directory.size() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(directory.size());
+            directory.forEach(member -> {
+                try {
+                    EventSegmentStore.writeString(out, member.getTeamMemberId());
+                    EventSegmentStore.writeString(out, member.getEmail());
+                    EventSegmentStore.writeString(out, member.getDisplayName());
+                    EventSegmentStore.writeString(out, member.getStatus());
+                    EventSegmentStore.writeString(out, member.getRole());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TeamMemberDirectory decodeMembers(ByteBuffer payload) {
+        int size = payload.getInt();
+        TeamMemberDirectory.Builder builder = TeamMemberDirectory.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(new TeamMemberDTO(EventSegmentStore.readString(payload), EventSegmentStore.readString(payload),
+                    EventSegmentStore.readString(payload), EventSegmentStore.readString(payload),
+                    EventSegmentStore.readString(payload)));
+        }
+        return builder.build();
+    }
+
+    private Path path(String section, String teamKey) {
+        return directory.resolve(teamKey.replaceAll("[^A-Za-z0-9_.-]", "_") + "." + section + SUFFIX);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeInt(value != null ? value : 0);
+    }
+
+    private static Integer readInteger(ByteBuffer payload) {
+        boolean present = payload.get() != 0;
+        int value = payload.getInt();
+        return present ? value : null;
+    }
+
+    public record Snapshot(String section, String teamKey, long loadedAt, ByteBuffer payload, long fileSize) {
+    }
+}
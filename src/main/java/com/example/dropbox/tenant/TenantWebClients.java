@@ -0,0 +1,123 @@
+package com.example.dropbox.tenant;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * One WebClient per team, each on its own Reactor Netty connection pool, so a team with a burst of
+ * slow or large calls exhausts only its own connections and pending-acquire queue. The clients share
+ * the filters of the base WebClient (OAuth2, throttling, metrics). Pools of teams that have been idle
+ * for {@code idleTimeout} are disposed and recreated on the team's next call.
+ */
+@Slf4j
+public class TenantWebClients implements MeterBinder, DisposableBean {
+
+    private final WebClient baseWebClient;
+    private final Function<String, ConnectionProvider.Builder> poolBuilder;
+    private final Function<ConnectionProvider, ClientHttpConnector> connectorFactory;
+    private final long idleTimeoutNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    public TenantWebClients(WebClient baseWebClient, Function<String, ConnectionProvider.Builder> poolBuilder,
+                            Function<ConnectionProvider, ClientHttpConnector> connectorFactory, Duration idleTimeout) {
+        this(baseWebClient, poolBuilder, connectorFactory, idleTimeout, System::nanoTime);
+    }
+
+    TenantWebClients(WebClient baseWebClient, Function<String, ConnectionProvider.Builder> poolBuilder,
+                     Function<ConnectionProvider, ClientHttpConnector> connectorFactory, Duration idleTimeout,
+                     LongSupplier nanoClock) {
+        this.baseWebClient = baseWebClient;
+        this.poolBuilder = poolBuilder;
+        this.connectorFactory = connectorFactory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * The team's client, or the shared one for calls that aren't made on behalf of a team.
+     */
+    public WebClient forTeam(String teamKey) {
+        if (teamKey == null) {
+            return baseWebClient;
+        }
+        // compute() so a call can't pick up a pool that pruneIdle is disposing at the same moment.
+        return tenants.compute(teamKey, (key, tenant) -> {
+            Tenant current = tenant != null ? tenant : create(key);
+            current.lastUsed = nanoClock.getAsLong();
+            return current;
+        }).webClient;
+    }
+
+    @Scheduled(fixedDelayString = "${api.external.tenant-pool.cleanup-interval:1m}",
+            initialDelayString = "${api.external.tenant-pool.cleanup-interval:1m}")
+    public void pruneIdle() {
+        long now = nanoClock.getAsLong();
+        for (String teamKey : tenants.keySet()) {
+            Tenant[] removed = new Tenant[1];
+            tenants.computeIfPresent(teamKey, (key, tenant) -> {
+                if (now - tenant.lastUsed < idleTimeoutNanos) {
+                    return tenant;
+                }
+                removed[0] = tenant;
+                return null;
+            });
+            if (removed[0] != null) {
+                log.debug("Disposing idle connection pool for team {}", teamKey);
+                removed[0].pool.disposeLater().subscribe();
+            }
+        }
+    }
+
+    int size() {
+        return tenants.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dropbox.api.tenant.pools", tenants, Map::size)
+                .description("Teams with their own Dropbox connection pool")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        tenants.values().forEach(tenant -> tenant.pool.dispose());
+        tenants.clear();
+    }
+
+    private Tenant create(String teamKey) {
+        ConnectionProvider pool = poolBuilder.apply(teamKey).build();
+        log.debug("Created connection pool for team {}", teamKey);
+        WebClient webClient = baseWebClient.mutate()
+                .clientConnector(connectorFactory.apply(pool))
+                .build();
+        return new Tenant(pool, webClient);
+    }
+
+    private static final class Tenant {
+
+        private final ConnectionProvider pool;
+        private final WebClient webClient;
+        private volatile long lastUsed;
+
+        private Tenant(ConnectionProvider pool, WebClient webClient) {
+            this.pool = pool;
+            this.webClient = webClient;
+        }
+    }
+}
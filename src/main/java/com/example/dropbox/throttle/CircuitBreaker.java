@@ -0,0 +1,64 @@
+package com.example.dropbox.throttle;
+
+/**
+ * Consecutive-failure circuit breaker. Once open it rejects calls for {@code openNanos}, then lets a
+ * single probe through; the probe's outcome closes or re-opens it.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        if (state == State.OPEN && now - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && probeInFlight)) {
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure(long now) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = now;
+        }
+        probeInFlight = false;
+    }
+
+    // A probe that was cancelled tells us nothing; let the next call probe instead.
+    synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized long remainingOpenNanos(long now) {
+        return state == State.OPEN ? Math.max(0, openNanos - (now - openedAt)) : 0;
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.dropbox.throttle;
+
+import com.example.dropbox.exception.DropboxApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared admission control for every outbound Dropbox call.
+ *
+ * <ul>
+ *   <li>An app-wide token bucket and one bucket per team. A call waits for a permit from both.</li>
+ *   <li>A 429 pauses the team's bucket and a 503 pauses the app bucket for the advertised
+ *       {@code Retry-After}, so queued callers wait it out instead of hammering Dropbox. A call without
+ *       a team, such as a user's sign-in, pauses nothing: only that call backs off.</li>
+ *   <li>Retries without a {@code Retry-After} use full-jitter exponential backoff.</li>
+ *   <li>Each team has its own circuit breaker, which opens after consecutive 5xx or I/O failures of that
+ *       team's calls, so one failing tenant doesn't shut out the others. Calls without a team share one.
+ *       Rate limiting is not a failure.</li>
+ * </ul>
+ *
+ * A call first waits for its team's permit and only then reserves an app-wide one, so a team queued
+ * behind its own limit doesn't hold app capacity that other teams could use. Each team may have at most
+ * {@code team.max-queue} waiting calls, so a single busy team can't fill the shared queue either.
+ * Calls that would queue past {@code max-wait}, or beyond the queue limits, fail fast with a
+ * {@link DropboxApiException} carrying the expected wait as its retry-after.
+ */
+@Slf4j
+@Component
+public class DropboxCallScheduler {
+
+    private static final HttpStatus REJECTED = HttpStatus.TOO_MANY_REQUESTS;
+
+    private final TokenBucket appBucket;
+    private final Map<String, Team> teams = new ConcurrentHashMap<>();
+    private final CircuitBreaker teamlessCircuitBreaker;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongSupplier nanoClock;
+
+    private final double teamPermitsPerSecond;
+    private final int teamBurst;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+    private final int maxQueuePerTeam;
+    private final int maxRetries;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long backoffBaseNanos;
+    private final long backoffMaxNanos;
+    private final long teamIdleNanos;
+
+    private final Timer waitTimer;
+    private final Counter retries;
+    private final MeterRegistry registry;
+
+    @Autowired
+    public DropboxCallScheduler(MeterRegistry registry,
+                                @Value("${api.external.rate-limit.app.permits-per-second:50}") double appPermitsPerSecond,
+                                @Value("${api.external.rate-limit.app.burst:100}") int appBurst,
+                                @Value("${api.external.rate-limit.team.permits-per-second:10}") double teamPermitsPerSecond,
+                                @Value("${api.external.rate-limit.team.burst:20}") int teamBurst,
+                                @Value("${api.external.rate-limit.max-wait:5s}") Duration maxWait,
+                                @Value("${api.external.rate-limit.max-queue:500}") int maxQueue,
+                                @Value("${api.external.rate-limit.team.max-queue:100}") int maxQueuePerTeam,
+                                @Value("${api.external.rate-limit.max-retries:3}") int maxRetries,
+                                @Value("${api.external.rate-limit.backoff.base:200ms}") Duration backoffBase,
+                                @Value("${api.external.rate-limit.backoff.max:10s}") Duration backoffMax,
+                                @Value("${api.external.rate-limit.circuit.failure-threshold:5}") int failureThreshold,
+                                @Value("${api.external.rate-limit.circuit.open-duration:30s}") Duration openDuration) {
+        this(registry, appPermitsPerSecond, appBurst, teamPermitsPerSecond, teamBurst, maxWait, maxQueue,
+                maxQueuePerTeam, maxRetries, backoffBase, backoffMax, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    DropboxCallScheduler(MeterRegistry registry, double appPermitsPerSecond, int appBurst,
+                         double teamPermitsPerSecond, int teamBurst, Duration maxWait, int maxQueue,
+                         int maxQueuePerTeam, int maxRetries, Duration backoffBase, Duration backoffMax,
+                         int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.registry = registry;
+        this.nanoClock = nanoClock;
+        this.appBucket = new TokenBucket(appPermitsPerSecond, appBurst, nanoClock.getAsLong());
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.teamlessCircuitBreaker = new CircuitBreaker(failureThreshold, openNanos);
+        this.teamPermitsPerSecond = teamPermitsPerSecond;
+        this.teamBurst = teamBurst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueue = maxQueue;
+        this.maxQueuePerTeam = maxQueuePerTeam;
+        this.maxRetries = maxRetries;
+        this.backoffBaseNanos = backoffBase.toNanos();
+        this.backoffMaxNanos = backoffMax.toNanos();
+        this.teamIdleNanos = Math.max(TimeUnit.MINUTES.toNanos(10), (long) (teamBurst / teamPermitsPerSecond * 1e9));
+
+        this.waitTimer = Timer.builder("dropbox.api.throttle.wait")
+                .description("Time outbound Dropbox calls spent waiting for a rate-limit permit")
+                .register(registry);
+        this.retries = Counter.builder("dropbox.api.retries")
+                .description("Outbound Dropbox calls retried after a throttled, failed or unreachable response")
+                .register(registry);
+        Gauge.builder("dropbox.api.throttle.queue", queued, AtomicInteger::get)
+                .description("Outbound Dropbox calls waiting for a rate-limit permit")
+                .register(registry);
+        Gauge.builder("dropbox.api.throttle.teams", teams, Map::size)
+                .description("Teams with an active rate-limit bucket")
+                .register(registry);
+        Gauge.builder("dropbox.api.circuit.open", this, DropboxCallScheduler::openCircuits)
+                .description("Teams whose Dropbox circuit breaker is open, counting calls without a team as one")
+                .register(registry);
+    }
+
+    /**
+     * Completes once the call may go out, after any queueing delay. Errors with a
+     * {@link DropboxApiException} when the call is rejected instead.
+     */
+    public Mono<Void> acquire(String teamKey) {
+        return Mono.defer(() -> {
+            Team team = teamKey != null ? team(teamKey) : null;
+            long teamWait = admitTeam(team);
+            return delay(teamWait, team)
+                    .then(Mono.fromCallable(() -> admitApp(team, teamWait)))
+                    .flatMap(appWait -> delay(appWait, team).thenReturn(teamWait + appWait))
+                    .doOnNext(wait -> waitTimer.record(wait, TimeUnit.NANOSECONDS))
+                    .then();
+        });
+    }
+
+    /**
+     * Blocking variant of {@link #acquire(String)} for RestTemplate calls.
+     */
+    public void acquireBlocking(String teamKey) {
+        Team team = teamKey != null ? team(teamKey) : null;
+        long teamWait = admitTeam(team);
+        sleep(teamWait, team);
+        long appWait = admitApp(team, teamWait);
+        sleep(appWait, team);
+        waitTimer.record(teamWait + appWait, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Feeds a response back into the limiter and breaker. Returns whether the call is worth retrying.
+     */
+    public boolean onResponse(String teamKey, HttpStatusCode status, Duration retryAfter) {
+        long now = nanoClock.getAsLong();
+        int code = status.value();
+        CircuitBreaker circuitBreaker = circuitBreaker(teamKey);
+
+        if (code == 429) {
+            circuitBreaker.onAbandoned();
+            if (teamKey == null) {
+                return retryAfter == null || retryAfter.toNanos() <= maxWaitNanos;
+            }
+            pause(team(teamKey).bucket, now, retryAfter);
+            return true;
+        }
+        if (code == 503 && teamKey != null) {
+            pause(appBucket, now, retryAfter);
+        }
+        if (status.is5xxServerError()) {
+            circuitBreaker.onFailure(now);
+            return code != 501;
+        }
+        circuitBreaker.onSuccess();
+        return false;
+    }
+
+    public void onIoFailure(String teamKey) {
+        circuitBreaker(teamKey).onFailure(nanoClock.getAsLong());
+    }
+
+    public void onCancelled(String teamKey) {
+        circuitBreaker(teamKey).onAbandoned();
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxRetries;
+    }
+
+    /**
+     * Delay before retry number {@code attempt + 1}. A team's {@code Retry-After} is already enforced by
+     * the paused bucket, so it only adds jitter on top of that pause. A call without a team paused no
+     * bucket, so it waits out the {@code Retry-After} itself.
+     */
+    public Duration backoff(String teamKey, int attempt, Duration retryAfter) {
+        retries.increment();
+        long ceiling = retryAfter != null
+                ? backoffBaseNanos
+                : Math.min(backoffMaxNanos, backoffBaseNanos << Math.min(attempt, 30));
+        Duration jitter = Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        return teamKey == null && retryAfter != null && !retryAfter.isNegative() ? retryAfter.plus(jitter) : jitter;
+    }
+
+    @Scheduled(fixedDelayString = "${api.external.rate-limit.team.cleanup-interval:5m}",
+            initialDelayString = "${api.external.rate-limit.team.cleanup-interval:5m}")
+    public void pruneIdleTeams() {
+        long now = nanoClock.getAsLong();
+        teams.values().removeIf(team -> team.queued.get() == 0 && team.bucket.isIdle(now, teamIdleNanos));
+    }
+
+    int queueDepth() {
+        return queued.get();
+    }
+
+    CircuitBreaker.State circuitState(String teamKey) {
+        return circuitBreaker(teamKey).state();
+    }
+
+    private long admitTeam(Team team) {
+        long now = nanoClock.getAsLong();
+        CircuitBreaker circuitBreaker = circuitBreaker(team);
+
+        if (!circuitBreaker.tryAcquire(now)) {
+            throw reject("circuit-open", "Dropbox API circuit is open",
+                    Duration.ofNanos(circuitBreaker.remainingOpenNanos(now)));
+        }
+        if (queued.get() >= maxQueue) {
+            circuitBreaker.onAbandoned();
+            throw reject("queue-full", "Too many Dropbox calls are already waiting", null);
+        }
+        if (team == null) {
+            return 0;
+        }
+        if (team.queued.get() >= maxQueuePerTeam) {
+            circuitBreaker.onAbandoned();
+            throw reject("team-queue-full", "Too many Dropbox calls for this team are already waiting", null);
+        }
+
+        long wait = team.bucket.reserve(now);
+        if (wait > maxWaitNanos) {
+            team.bucket.refund(now);
+            circuitBreaker.onAbandoned();
+            throw reject("max-wait", "Dropbox rate limit reached", Duration.ofNanos(wait));
+        }
+        return wait;
+    }
+
+    // Reserved only once the team's own permit is due; the wait so far counts against max-wait.
+    private long admitApp(Team team, long waited) {
+        long now = nanoClock.getAsLong();
+        CircuitBreaker circuitBreaker = circuitBreaker(team);
+        long wait = appBucket.reserve(now);
+        if (waited + wait > maxWaitNanos) {
+            appBucket.refund(now);
+            if (team != null) {
+                team.bucket.refund(now);
+            }
+            circuitBreaker.onAbandoned();
+            throw reject("max-wait", "Dropbox rate limit reached", Duration.ofNanos(waited + wait));
+        }
+        return wait;
+    }
+
+    private Mono<Void> delay(long wait, Team team) {
+        if (wait <= 0) {
+            return Mono.empty();
+        }
+        enqueue(team);
+        return Mono.delay(Duration.ofNanos(wait))
+                .doFinally(signal -> dequeue(team))
+                .then();
+    }
+
+    private void sleep(long wait, Team team) {
+        if (wait <= 0) {
+            return;
+        }
+        enqueue(team);
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DropboxApiException("Interrupted while waiting for a Dropbox rate-limit permit",
+                    null, null, ex);
+        } finally {
+            dequeue(team);
+        }
+    }
+
+    private void enqueue(Team team) {
+        queued.incrementAndGet();
+        if (team != null) {
+            team.queued.incrementAndGet();
+        }
+    }
+
+    private void dequeue(Team team) {
+        queued.decrementAndGet();
+        if (team != null) {
+            team.queued.decrementAndGet();
+        }
+    }
+
+    private Team team(String teamKey) {
+        return teams.computeIfAbsent(teamKey,
+                key -> new Team(new TokenBucket(teamPermitsPerSecond, teamBurst, nanoClock.getAsLong()),
+                        new CircuitBreaker(failureThreshold, openNanos)));
+    }
+
+    private CircuitBreaker circuitBreaker(String teamKey) {
+        return circuitBreaker(teamKey != null ? team(teamKey) : null);
+    }
+
+    private CircuitBreaker circuitBreaker(Team team) {
+        return team != null ? team.circuitBreaker : teamlessCircuitBreaker;
+    }
+
+    private int openCircuits() {
+        int open = teamlessCircuitBreaker.state() == CircuitBreaker.State.OPEN ? 1 : 0;
+        for (Team team : teams.values()) {
+            if (team.circuitBreaker.state() == CircuitBreaker.State.OPEN) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private void pause(TokenBucket bucket, long now, Duration retryAfter) {
+        if (retryAfter != null && !retryAfter.isNegative()) {
+            bucket.pauseUntil(now + retryAfter.toNanos());
+        }
+    }
+
+    private DropboxApiException reject(String reason, String message, Duration retryAfter) {
+        registry.counter("dropbox.api.throttle.rejected", "reason", reason).increment();
+        log.debug("Rejected outbound Dropbox call: {}", reason);
+        Duration rounded = retryAfter == null ? null : Duration.ofSeconds(Math.max(1, ceilSeconds(retryAfter)));
+        return new DropboxApiException(message, REJECTED, rounded);
+    }
+
+    private static long ceilSeconds(Duration duration) {
+        return (duration.toMillis() + 999) / 1000;
+    }
+
+    private static final class Team {
+
+        private final TokenBucket bucket;
+        private final CircuitBreaker circuitBreaker;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private Team(TokenBucket bucket, CircuitBreaker circuitBreaker) {
+            this.bucket = bucket;
+            this.circuitBreaker = circuitBreaker;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.dropbox.throttle;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+public final class RetryAfter {
+
+    private RetryAfter() {
+    }
+
+    // Retry-After is either delay-seconds or an HTTP-date. Dropbox sends seconds, proxies may send a date.
+    public static Duration parse(HttpHeaders headers) {
+        return headers == null ? null : parse(headers.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    public static Duration parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException ignored) {
+            // fall through to HTTP-date
+        }
+        try {
+            Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration delay = Duration.between(Instant.now(), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
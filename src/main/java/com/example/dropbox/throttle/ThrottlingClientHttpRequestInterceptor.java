@@ -0,0 +1,38 @@
+package com.example.dropbox.throttle;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * RestTemplate counterpart of {@link ThrottlingExchangeFilterFunction}. RestTemplate only carries the
+ * login-time user info call, which happens before there is a team to attribute it to. It therefore
+ * draws on the app bucket alone, and it does not retry: a failed login is reported, not replayed. A
+ * throttled login pauses no bucket either, so one user's sign-in never holds up the other tenants.
+ */
+public class ThrottlingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DropboxCallScheduler scheduler;
+
+    public ThrottlingClientHttpRequestInterceptor(DropboxCallScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        scheduler.acquireBlocking(null);
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException ex) {
+            scheduler.onIoFailure(null);
+            throw ex;
+        }
+        scheduler.onResponse(null, response.getStatusCode(), RetryAfter.parse(response.getHeaders()));
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.dropbox.throttle;
+
+import com.example.dropbox.exception.DropboxApiException;
+import com.example.dropbox.utils.SecurityUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Runs every WebClient exchange through the {@link DropboxCallScheduler}. Throttled and 5xx responses
+ * are released and retried, and so are connection failures. The last response is passed through
+ * unchanged so callers still see the real status. Register it after the OAuth2 filter, so retries
+ * reuse the resolved token, and before the metrics filter, so each attempt is timed on its own.
+ */
+public class ThrottlingExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final DropboxCallScheduler scheduler;
+
+    public ThrottlingExchangeFilterFunction(DropboxCallScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String teamKey = request.attribute(Authentication.class.getName())
+                .map(authentication -> SecurityUtils.teamKey((Authentication) authentication))
+                .orElse(null);
+        return attempt(request, next, teamKey, 0);
+    }
+
+    private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next, String teamKey, int attempt) {
+        return scheduler.acquire(teamKey)
+                .then(Mono.defer(() -> next.exchange(request)))
+                .doOnCancel(() -> scheduler.onCancelled(teamKey))
+                .flatMap(response -> {
+                    Duration retryAfter = RetryAfter.parse(response.headers().asHttpHeaders());
+                    boolean retryable = scheduler.onResponse(teamKey, response.statusCode(), retryAfter);
+                    if (!retryable || !scheduler.canRetry(attempt)) {
+                        return Mono.just(response);
+                    }
+                    return response.releaseBody()
+                            .then(Mono.delay(scheduler.backoff(teamKey, attempt, retryAfter)))
+                            .then(attempt(request, next, teamKey, attempt + 1));
+                })
+                .onErrorResume(WebClientRequestException.class, ex -> {
+                    scheduler.onIoFailure(teamKey);
+                    if (scheduler.canRetry(attempt)) {
+                        return Mono.delay(scheduler.backoff(teamKey, attempt, null))
+                                .then(attempt(request, next, teamKey, attempt + 1));
+                    }
+                    return Mono.error(new DropboxApiException("Dropbox API unreachable: " + ex.getMessage(),
+                            null, null, ex));
+                });
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.dropbox.throttle;
+
+/**
+ * Reservation-style token bucket. A reservation always takes a token and may drive the balance
+ * negative; the caller waits for the returned number of nanoseconds, so queued callers are released
+ * one refill interval apart instead of all at once. {@link #pauseUntil} blocks the bucket entirely,
+ * e.g. for a Retry-After window.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.capacity = burst;
+        this.tokensPerNano = permitsPerSecond / 1_000_000_000d;
+        this.tokens = burst;
+        this.lastRefill = now;
+        this.pausedUntil = now;
+    }
+
+    synchronized long reserve(long now) {
+        refill(now);
+        tokens -= 1;
+        long tokenWait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        return Math.max(tokenWait, pausedUntil - now);
+    }
+
+    synchronized void refund(long now) {
+        refill(now);
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    synchronized void pauseUntil(long until) {
+        pausedUntil = Math.max(pausedUntil, until);
+    }
+
+    synchronized boolean isIdle(long now, long idleNanos) {
+        return now - lastRefill >= idleNanos && now >= pausedUntil;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.dropbox.token;
+
+import com.example.dropbox.session.CompactOAuth2AuthorizedClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.OAuth2AuthorizationContext;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Walks every stored authorized client and refreshes the ones whose access token expires within
+ * {@code refresh-ahead}, so dashboard requests do not wait on the token endpoint. A client whose
+ * refresh token was revoked is removed, and the admin signs in again on their next visit.
+ */
+@Slf4j
+@Component
+public class TokenRefreshScheduler {
+
+    private final CompactOAuth2AuthorizedClientService authorizedClientService;
+    private final TokenRefresher tokenRefresher;
+    private final Executor refreshExecutor;
+    private final boolean enabled;
+
+    public TokenRefreshScheduler(CompactOAuth2AuthorizedClientService authorizedClientService,
+                                 TokenRefresher tokenRefresher,
+                                 @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+                                 @Value("${oauth.token-refresh.enabled:true}") boolean enabled) {
+        this.authorizedClientService = authorizedClientService;
+        this.tokenRefresher = tokenRefresher;
+        this.refreshExecutor = refreshExecutor;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${oauth.token-refresh.interval:1m}",
+            initialDelayString = "${oauth.token-refresh.interval:1m}")
+    public void refreshExpiringTokens() {
+        if (!enabled) {
+            return;
+        }
+        for (OAuth2AuthorizedClient client : authorizedClientService.loadAll()) {
+            if (tokenRefresher.needsRefresh(client) && !tokenRefresher.isRefreshing(client)) {
+                try {
+                    refreshExecutor.execute(() -> refresh(client));
+                } catch (RejectedExecutionException ex) {
+                    log.warn("Deferring token refresh for {}: executor is saturated", client.getPrincipalName());
+                    return;
+                }
+            }
+        }
+    }
+
+    void refresh(OAuth2AuthorizedClient client) {
+        Authentication principal = UsernamePasswordAuthenticationToken.authenticated(
+                client.getPrincipalName(), null, AuthorityUtils.NO_AUTHORITIES);
+        try {
+            OAuth2AuthorizedClient refreshed = tokenRefresher.refresh(
+                    OAuth2AuthorizationContext.withAuthorizedClient(client).principal(principal).build(),
+                    TokenRefresher.BACKGROUND);
+            if (refreshed != null) {
+                authorizedClientService.saveAuthorizedClient(refreshed, principal);
+            }
+        } catch (OAuth2AuthorizationException ex) {
+            if (OAuth2ErrorCodes.INVALID_GRANT.equals(ex.getError().getErrorCode())) {
+                log.info("Refresh token for {} was rejected; removing the authorized client", client.getPrincipalName());
+                authorizedClientService.removeAuthorizedClient(
+                        client.getClientRegistration().getRegistrationId(), client.getPrincipalName());
+            } else {
+                log.warn("Token refresh for {} failed: {}", client.getPrincipalName(), ex.getMessage());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Token refresh for {} failed: {}", client.getPrincipalName(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.dropbox.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.client.OAuth2AuthorizationContext;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProvider;
+import org.springframework.security.oauth2.client.RefreshTokenOAuth2AuthorizedClientProvider;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2RefreshTokenGrantRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight refresh-token grant shared by the background {@link TokenRefreshScheduler} and the
+ * authorized client manager. A caller that finds a refresh already running for the same principal waits
+ * for its result instead of sending a second token request.
+ *
+ * <p>As a provider for the manager it only steps in once a token is within {@code inline-clock-skew} of
+ * expiry. The scheduler refreshes earlier, at {@code refresh-ahead}, so a request normally finds a fresh
+ * token and never calls the token endpoint.
+ */
+@Slf4j
+@Component
+public class TokenRefresher implements OAuth2AuthorizedClientProvider {
+
+    static final String BACKGROUND = "background";
+    static final String INLINE = "inline";
+
+    private final RefreshTokenOAuth2AuthorizedClientProvider delegate = new RefreshTokenOAuth2AuthorizedClientProvider();
+    private final Map<String, CompletableFuture<OAuth2AuthorizedClient>> inFlight = new ConcurrentHashMap<>();
+    private final Duration refreshAhead;
+    private final Duration inlineClockSkew;
+    private final Clock clock;
+    private final MeterRegistry registry;
+    private final Counter coalesced;
+
+    @Autowired
+    public TokenRefresher(MeterRegistry registry,
+                          @Value("${oauth.token-refresh.refresh-ahead:5m}") Duration refreshAhead,
+                          @Value("${oauth.token-refresh.inline-clock-skew:60s}") Duration inlineClockSkew) {
+        this(registry, refreshAhead, inlineClockSkew, Clock.systemUTC());
+    }
+
+    TokenRefresher(MeterRegistry registry, Duration refreshAhead, Duration inlineClockSkew, Clock clock) {
+        this.registry = registry;
+        this.refreshAhead = refreshAhead;
+        this.inlineClockSkew = inlineClockSkew;
+        this.clock = clock;
+        this.delegate.setClockSkew(refreshAhead);
+        this.delegate.setClock(clock);
+        this.coalesced = Counter.builder("dropbox.oauth.token.refresh.coalesced")
+                .description("Token refreshes that joined one already in flight for the same principal")
+                .register(registry);
+    }
+
+    void setAccessTokenResponseClient(
+            OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> accessTokenResponseClient) {
+        delegate.setAccessTokenResponseClient(accessTokenResponseClient);
+    }
+
+    /**
+     * Inline path used by the authorized client manager when a request finds a token about to expire.
+     */
+    @Override
+    public OAuth2AuthorizedClient authorize(OAuth2AuthorizationContext context) {
+        OAuth2AuthorizedClient client = context.getAuthorizedClient();
+        if (client == null || !expiresWithin(client, inlineClockSkew)) {
+            return null;
+        }
+        return refresh(context, INLINE);
+    }
+
+    public boolean needsRefresh(OAuth2AuthorizedClient client) {
+        return client.getRefreshToken() != null && expiresWithin(client, refreshAhead);
+    }
+
+    public boolean isRefreshing(OAuth2AuthorizedClient client) {
+        return inFlight.containsKey(key(client));
+    }
+
+    /**
+     * Runs the refresh-token grant, or joins the one already running for this principal. Returns
+     * {@code null} when the token was not due for a refresh.
+     */
+    public OAuth2AuthorizedClient refresh(OAuth2AuthorizationContext context, String trigger) {
+        String key = key(context.getAuthorizedClient());
+        CompletableFuture<OAuth2AuthorizedClient> refresh = new CompletableFuture<>();
+        CompletableFuture<OAuth2AuthorizedClient> existing = inFlight.putIfAbsent(key, refresh);
+
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "failure";
+        try {
+            OAuth2AuthorizedClient refreshed = delegate.authorize(context);
+            refresh.complete(refreshed);
+            outcome = refreshed != null ? "success" : "skipped";
+            return refreshed;
+        } catch (RuntimeException ex) {
+            refresh.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, refresh);
+            sample.stop(Timer.builder("dropbox.oauth.token.refresh")
+                    .description("Refresh-token grants against the Dropbox token endpoint")
+                    .tags("trigger", trigger, "outcome", outcome)
+                    .register(registry));
+            log.debug("Token refresh for {} ({}) finished: {}", key, trigger, outcome);
+        }
+    }
+
+    private boolean expiresWithin(OAuth2AuthorizedClient client, Duration window) {
+        Instant expiresAt = client.getAccessToken().getExpiresAt();
+        return expiresAt != null && !clock.instant().plus(window).isBefore(expiresAt);
+    }
+
+    private static String key(OAuth2AuthorizedClient client) {
+        return client.getClientRegistration().getRegistrationId() + ":" + client.getPrincipalName();
+    }
+}
@@ -9,6 +9,8 @@ public final class Constants {
     public static final String DISPLAY_NAME_ATTR = "admin_profile.display_name";
     public static final String NAME_KEY = "name";
     public static final String DISPLAY_NAME_KEY = "display_name";
+    public static final String TEAM_ID_KEY = "team_id";
+    public static final String ACCOUNT_ID_KEY = "account_id";
     public static final String CONTENT_TYPE_JSON = "application/json";
     public static final String REQUEST_BODY_NULL = "null";
     public static final String ROLE_ADMIN = "ROLE_ADMIN";
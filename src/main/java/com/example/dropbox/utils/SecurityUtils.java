@@ -0,0 +1,48 @@
+package com.example.dropbox.utils;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.util.function.Supplier;
+
+public final class SecurityUtils {
+
+    private SecurityUtils() {
+    }
+
+    // Partition key for per-team data. Sessions without a team_id fall back to a per-admin partition.
+    public static String teamKey(Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof OAuth2User user
+                && user.getAttribute(Constants.TEAM_ID_KEY) != null) {
+            return user.getAttribute(Constants.TEAM_ID_KEY);
+        }
+        return authentication.getName();
+    }
+
+    // Client registration the admin signed in with, so their Dropbox calls use the same app credentials.
+    public static String registrationId(Authentication authentication) {
+        if (authentication instanceof OAuth2AuthenticationToken token) {
+            return token.getAuthorizedClientRegistrationId();
+        }
+        return null;
+    }
+
+    // Runs work on a background thread as the given admin, e.g. to assemble Dropbox calls outside a request.
+    public static <T> T runAs(Authentication authentication, Supplier<T> work) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            return work.get();
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+}
@@ -1,11 +1,25 @@
 package com.example.dropbox;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class DropboxApplicationTests {
 
+	// Sessions, authorized clients, events and snapshots go here instead of ./data in the checkout.
+	@TempDir
+	static Path storageDir;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) {
+		registry.add("storage.base-dir", storageDir::toString);
+	}
+
 	@Test
 	void contextLoads() {
 	}
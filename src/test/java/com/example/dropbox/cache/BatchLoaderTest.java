@@ -0,0 +1,123 @@
+package com.example.dropbox.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BatchLoader Unit Tests")
+class BatchLoaderTest {
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    private final BatchLoader<String, String> loader =
+            new BatchLoader<>("test", Duration.ofMillis(10), 3, scheduler);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("Should send the keys requested within the window as one batch per partition")
+    void testLoad_BatchesWithinWindow() {
+        CompletableFuture<String> a = loader.load("team1", "a", this::upperCase);
+        CompletableFuture<String> b = loader.load("team1", "b", this::upperCase);
+        CompletableFuture<String> again = loader.load("team1", "a", this::upperCase);
+        CompletableFuture<String> c = loader.load("team2", "c", this::upperCase);
+        CompletableFuture<String> missing = loader.load("team2", "missing", this::upperCase);
+
+        assertThat(calls).isEmpty();
+
+        scheduler.advanceTimeBy(Duration.ofMillis(10));
+
+        assertThat(calls).containsExactlyInAnyOrder(List.of("a", "b"), List.of("c", "missing"));
+        assertThat(a).isCompletedWithValue("A");
+        assertThat(again).isSameAs(a);
+        assertThat(b).isCompletedWithValue("B");
+        assertThat(missing).isCompletedWithValue(null);
+        assertThat(c).isCompletedWithValue("C");
+        assertThat(loader.openBatches()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should send a full batch at once and fail every caller of a failed batch")
+    void testLoad_FullBatchAndFailure() {
+        Function<List<String>, Mono<Map<String, String>>> failing = keys -> {
+            calls.add(keys);
+            return Mono.error(new IllegalStateException("boom"));
+        };
+
+        List<CompletableFuture<String>> futures = List.of("a", "b", "c", "d").stream()
+                .map(key -> loader.load("team1", key, failing))
+                .toList();
+
+        assertThat(calls).containsExactly(List.of("a", "b", "c"));
+        assertThat(futures.subList(0, 3)).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(futures.get(3)).isNotDone();
+
+        scheduler.advanceTimeBy(Duration.ofMillis(10));
+
+        assertThat(calls).containsExactly(List.of("a", "b", "c"), List.of("d"));
+        assertThat(futures.get(3)).isCompletedExceptionally();
+    }
+
+    // The race is narrow, so it is run several times to have a fair chance of hitting it.
+    @RepeatedTest(20)
+    @DisplayName("Should never send more than the batch limit when callers race to fill a batch")
+    void testLoad_ConcurrentCallersRespectLimit() throws Exception {
+        int threads = 8;
+        int keysPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<CompletableFuture<String>>>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                List<CompletableFuture<String>> futures = new ArrayList<>();
+                for (int i = 0; i < keysPerThread; i++) {
+                    futures.add(loader.load("team1", thread + "-" + i, this::upperCase));
+                }
+                return futures;
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (Future<List<CompletableFuture<String>>> result : results) {
+            futures.addAll(result.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        scheduler.advanceTimeBy(Duration.ofMillis(10));
+
+        assertThat(calls).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(calls.stream().mapToInt(List::size).sum()).isEqualTo(threads * keysPerThread);
+        assertThat(futures).allMatch(future -> future.isDone() && !future.isCompletedExceptionally());
+    }
+
+    private Mono<Map<String, String>> upperCase(List<String> keys) {
+        calls.add(keys);
+        return Mono.just(keys.stream()
+                .filter(key -> !key.equals("missing"))
+                .collect(Collectors.toMap(key -> key, String::toUpperCase)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.dropbox.cache;
+
+import com.example.dropbox.dto.TeamInfoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("FragmentCache Unit Tests")
+class FragmentCacheTest {
+
+    private static final String TEMPLATE = "fragments/dashboard-sections";
+
+    private SpringTemplateEngine templateEngine;
+    private FragmentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        templateEngine = spy(new SpringTemplateEngine());
+        templateEngine.setTemplateResolver(resolver);
+        cache = new FragmentCache("test", templateEngine, TEMPLATE, 10);
+    }
+
+    @Test
+    @DisplayName("Should reuse a rendered fragment while its data is unchanged")
+    void testRender_ReusesUnchangedFragment() {
+        FragmentCache.Fragment first = cache.render("team1", "teamDetails", teamInfo("Example Team", 10));
+        FragmentCache.Fragment second = cache.render("team1", "teamDetails", teamInfo("Example Team", 10));
+
+        assertThat(first.html()).contains("Example Team").contains("7 / 10");
+        assertThat(second).isSameAs(first);
+        verify(templateEngine, times(1)).process(eq(TEMPLATE), anySet(), any(IContext.class));
+    }
+
+    @Test
+    @DisplayName("Should re-render when the data changes and keep teams apart")
+    void testRender_DataChangeAndPartitions() {
+        FragmentCache.Fragment before = cache.render("team1", "teamDetails", teamInfo("Example Team", 10));
+        FragmentCache.Fragment after = cache.render("team1", "teamDetails", teamInfo("Example Team", 12));
+        FragmentCache.Fragment otherTeam = cache.render("team2", "teamDetails", teamInfo("Example Team", 12));
+
+        assertThat(after.html()).contains("7 / 12");
+        assertThat(after.digest()).isNotEqualTo(before.digest());
+        assertThat(otherTeam.digest()).isEqualTo(after.digest());
+        verify(templateEngine, times(3)).process(eq(TEMPLATE), eq(Set.of("teamDetails")), any(IContext.class));
+    }
+
+    private static Map<String, Object> teamInfo(String name, int licensed) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("teamInfo", new TeamInfoDTO(name, "dbtid:team", licensed, 7, 7));
+        return variables;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.dropbox.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RefreshingCache Unit Tests")
+class RefreshingCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final List<Runnable> scheduledRefreshes = new ArrayList<>();
+
+    private RefreshingCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RefreshingCache<>("test", Duration.ofMinutes(10), Duration.ofHours(1), 2,
+                scheduledRefreshes::add, now::get);
+    }
+
+    @Test
+    @DisplayName("Should load on miss and serve fresh entries without calling the loader")
+    void testGet_HitWithinTtl() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("team1", key -> "v" + loads.incrementAndGet());
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        String value = cache.get("team1", key -> "v" + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve stale entry and schedule a single background refresh")
+    void testGet_StaleWhileRevalidate() {
+        cache.get("team1", key -> "old");
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        assertThat(cache.get("team1", key -> "new")).isEqualTo("old");
+        assertThat(cache.get("team1", key -> "new")).isEqualTo("old");
+        assertThat(scheduledRefreshes).hasSize(1);
+
+        scheduledRefreshes.get(0).run();
+
+        assertThat(cache.get("team1", key -> "unused")).isEqualTo("new");
+        assertThat(cache.stats().staleHits()).isEqualTo(2);
+        assertThat(cache.stats().refreshes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve an expired entry once more while refreshing it in the background")
+    void testExpire_RefreshesOnNextRead() {
+        cache.get("team1", key -> "old");
+        cache.expire("team1");
+        cache.expire("absent");
+
+        assertThat(cache.get("team1", key -> "new")).isEqualTo("old");
+        assertThat(scheduledRefreshes).hasSize(1);
+        assertThat(cache.getIfPresent("absent")).isNull();
+
+        scheduledRefreshes.get(0).run();
+
+        assertThat(cache.get("team1", key -> "unused")).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("Should reload synchronously once the entry is past the stale window")
+    void testGet_ExpiredBeyondMaxStale() {
+        cache.get("team1", key -> "old");
+        now.addAndGet(Duration.ofMinutes(71).toMillis());
+
+        assertThat(cache.get("team1", key -> "new")).isEqualTo("new");
+        assertThat(scheduledRefreshes).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should collapse concurrent misses for the same key into one load")
+    void testGet_ConcurrentMissesSingleFlight() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<String> leader = pool.submit(() -> cache.get("team1", key -> {
+                loads.incrementAndGet();
+                loaderEntered.countDown();
+                await(release);
+                return "value";
+            }));
+            assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(pool.submit(() -> cache.get("team1", key -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            for (Future<String> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should propagate loader failures without caching them")
+    void testGet_LoaderFailure() {
+        assertThatThrownBy(() -> cache.get("team1", key -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("team1", key -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void testPut_EvictsLeastRecentlyUsed() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.getIfPresent("a");
+        cache.put("c", "3");
+
+        assertThat(cache.getIfPresent("a")).isEqualTo("1");
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep a small team's entries while a large team fills the cache")
+    void testPut_LargeTeamEvictsOnlyItsOwnEntries() {
+        RefreshingCache<String, String> members = new RefreshingCache<>("test", Duration.ofMinutes(10),
+                Duration.ofHours(1), 100, key -> key.substring(0, key.indexOf('|')), 20,
+                scheduledRefreshes::add, now::get);
+        for (int i = 0; i < 5; i++) {
+            members.put("small|dbmid:" + i, "member " + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            members.put("large|dbmid:" + i, "member " + i);
+            members.getIfPresent("large|dbmid:0");
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(members.getIfPresent("small|dbmid:" + i)).isEqualTo("member " + i);
+        }
+        assertThat(members.partitionSize("small")).isEqualTo(5);
+        assertThat(members.partitionSize("large")).isEqualTo(20);
+        assertThat(members.getIfPresent("large|dbmid:0")).isEqualTo("member 0");
+        assertThat(members.getIfPresent("large|dbmid:9999")).isEqualTo("member 9999");
+        assertThat(members.getIfPresent("large|dbmid:1")).isNull();
+        assertThat(members.size()).isEqualTo(25);
+        assertThat(members.stats().evictions()).isEqualTo(10_000 - 20);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.cache.FragmentCache;
+import com.example.dropbox.dto.DashboardSectionDTO;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.service.DashboardAggregationService;
+import com.example.dropbox.service.TeamEventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardController Unit Tests")
+class DashboardControllerTest {
+
+    @Mock
+    private DashboardAggregationService dashboardAggregationService;
+
+    @Mock
+    private TeamEventService teamEventService;
+
+    private OAuth2AuthenticationToken authentication;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        DashboardController controller = new DashboardController();
+        ReflectionTestUtils.setField(controller, "dashboardAggregationService", dashboardAggregationService);
+        ReflectionTestUtils.setField(controller, "teamEventService", teamEventService);
+        ReflectionTestUtils.setField(controller, "dashboardFragmentCache",
+                new FragmentCache("test", templateEngine, "fragments/dashboard-sections", 100));
+        ReflectionTestUtils.setField(controller, "inlineWait", Duration.ofMillis(200));
+
+        DropboxAdminPrincipal principal =
+                new DropboxAdminPrincipal("dbmid:admin", "admin@example.com", "Admin User", "dbtid:team");
+        authentication = new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "dbx");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setSingleView((model, request, response) -> response.getWriter().write("dashboard"))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should answer 304 with an empty body when the page is unchanged")
+    void testGetDashboard_NotModified() throws Exception {
+        when(dashboardAggregationService.streamSections(DashboardAggregationService.SECTIONS))
+                .thenReturn(allSections("Acme"));
+
+        MvcResult first = getDashboard(null);
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(first.getResponse().getStatus()).isEqualTo(200);
+        assertThat(first.getResponse().getContentAsString()).isEqualTo("dashboard");
+        assertThat(etag).isNotBlank();
+
+        MvcResult second = getDashboard(etag);
+        assertThat(second.getResponse().getStatus()).isEqualTo(304);
+        assertThat(second.getResponse().getContentAsString()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should change the ETag when a fragment changes")
+    void testGetDashboard_ChangedFragmentChangesEtag() throws Exception {
+        when(dashboardAggregationService.streamSections(DashboardAggregationService.SECTIONS))
+                .thenReturn(allSections("Acme"), allSections("Acme Corp"));
+
+        String etag = getDashboard(null).getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult changed = getDashboard(etag);
+
+        assertThat(changed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotBlank().isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("Should not send an ETag for a page with sections still to stream")
+    void testGetDashboard_LazySectionsHaveNoEtag() throws Exception {
+        when(dashboardAggregationService.streamSections(DashboardAggregationService.SECTIONS))
+                .thenReturn(Flux.just(teamInfo("Acme")).concatWith(Flux.never()));
+
+        MvcResult result = getDashboard(null);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(result.getModelAndView().getModel().get("lazySections")).isEqualTo(List.of(
+                DashboardAggregationService.MEMBER_COUNTS, DashboardAggregationService.RECENT_EVENTS,
+                DashboardAggregationService.SHARING_STATS));
+    }
+
+    @Test
+    @DisplayName("Should stream the fragments of known sections as events and end with a done event")
+    void testStreamSections_EmitsFragmentsThenDone() throws Exception {
+        when(dashboardAggregationService.streamSections(List.of(DashboardAggregationService.TEAM_INFO)))
+                .thenReturn(Flux.just(teamInfo("Acme")));
+
+        MvcResult result = mockMvc.perform(get("/dashboard/sections")
+                        .param("names", DashboardAggregationService.TEAM_INFO, "bogus")
+                        .principal(authentication)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        String body = result.getResponse().getContentAsString();
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(body).contains("event:teamCards", "event:teamDetails", "Acme");
+        assertThat(body).doesNotContain("event:memberCounts", "event:bogus");
+        assertThat(body.indexOf("event:done")).isGreaterThan(body.lastIndexOf("event:team"));
+        assertThat(body).endsWith("event:done\ndata:\n\n");
+        verify(dashboardAggregationService).streamSections(List.of(DashboardAggregationService.TEAM_INFO));
+    }
+
+    @Test
+    @DisplayName("Should send only the done event when no requested section is known")
+    void testStreamSections_UnknownNamesOnly() throws Exception {
+        when(dashboardAggregationService.streamSections(List.of())).thenReturn(Flux.empty());
+
+        MvcResult result = mockMvc.perform(get("/dashboard/sections")
+                        .param("names", "bogus")
+                        .principal(authentication)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        assertThat(result.getResponse().getContentAsString()).isEqualTo("event:done\ndata:\n\n");
+    }
+
+    private MvcResult getDashboard(String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder dashboard = get("/dashboard").principal(authentication);
+        if (ifNoneMatch != null) {
+            dashboard.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MvcResult started = mockMvc.perform(dashboard)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+
+    private static Flux<DashboardSectionDTO> allSections(String teamName) {
+        return Flux.just(teamInfo(teamName),
+                new DashboardSectionDTO(DashboardAggregationService.MEMBER_COUNTS, null, null),
+                new DashboardSectionDTO(DashboardAggregationService.RECENT_EVENTS, List.of(), null),
+                new DashboardSectionDTO(DashboardAggregationService.SHARING_STATS, null, "Still loading sharing statistics."));
+    }
+
+    private static DashboardSectionDTO teamInfo(String name) {
+        return new DashboardSectionDTO(DashboardAggregationService.TEAM_INFO,
+                new TeamInfoDTO(name, "dbtid:team", 10, 8, 8), null);
+    }
+}
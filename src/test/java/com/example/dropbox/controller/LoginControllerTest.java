@@ -0,0 +1,65 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.utils.Constants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("LoginController Unit Tests")
+class LoginControllerTest {
+
+    @Test
+    @DisplayName("Should list every registration even when two share a client name")
+    void testGetLoginPage_SameClientNameListedOncePerRegistration() throws Exception {
+        MockMvc mockMvc = mockMvc(registration("acme", "Dropbox"), registration("globex", "Dropbox"));
+
+        mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("clientNames", Map.of("acme", "Dropbox", "globex", "Dropbox")))
+                .andExpect(model().attributeDoesNotExist("authorizationUri"));
+    }
+
+    @Test
+    @DisplayName("Should go straight to the registration picked by ?tenant=")
+    void testGetLoginPage_TenantPicksRegistration() throws Exception {
+        MockMvc mockMvc = mockMvc(registration("acme", "Dropbox"), registration("globex", "Dropbox"));
+
+        mockMvc.perform(get("/login").param("tenant", "globex"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("authorizationUri", "/oauth2/authorization/globex"));
+    }
+
+    private static MockMvc mockMvc(ClientRegistration... registrations) {
+        LoginController controller = new LoginController();
+        ReflectionTestUtils.setField(controller, "clientRegistrationRepository",
+                new InMemoryClientRegistrationRepository(registrations));
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setSingleView((model, request, response) -> response.getWriter().write("login"))
+                .build();
+    }
+
+    private static ClientRegistration registration(String registrationId, String clientName) {
+        return ClientRegistration.withRegistrationId(registrationId)
+                .clientId(registrationId + "-client")
+                .clientSecret("secret")
+                .clientName(clientName)
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("https://www.dropbox.com/oauth2/authorize")
+                .tokenUri("https://api.dropboxapi.com/oauth2/token")
+                .userInfoUri("https://api.dropboxapi.com/2/team/token/get_authenticated_admin")
+                .userNameAttributeName(Constants.TEAM_MEMBER_ID_ATTR)
+                .build();
+    }
+}
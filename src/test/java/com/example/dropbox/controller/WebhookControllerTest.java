@@ -0,0 +1,93 @@
+package com.example.dropbox.controller;
+
+import com.example.dropbox.security.WebhookSignatureVerifier;
+import com.example.dropbox.service.TeamRefreshService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookController Unit Tests")
+class WebhookControllerTest {
+
+    private static final String SECRET = "app-secret";
+    private static final byte[] BODY = """
+            {"list_folder": {"teams": {"dbtid:1": ["dbmid:1", "dbmid:2"], "dbtid:2": ["dbmid:3"]}}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private TeamRefreshService teamRefreshService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        WebhookController controller = new WebhookController(new WebhookSignatureVerifier(List.of(SECRET)),
+                teamRefreshService, new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    @DisplayName("Should echo the verification challenge as plain text")
+    void testVerify_EchoesChallenge() throws Exception {
+        mockMvc.perform(get("/webhooks/dropbox").param("challenge", "abc123"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string("abc123"));
+    }
+
+    @Test
+    @DisplayName("Should reject a notification with a bad signature")
+    void testReceive_BadSignature() throws Exception {
+        mockMvc.perform(post("/webhooks/dropbox")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Dropbox-Signature", sign("other-secret", BODY))
+                        .content(BODY))
+                .andExpect(status().isForbidden());
+
+        verify(teamRefreshService, never()).enqueue(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should queue a refresh per notified team with its members")
+    void testReceive_EnqueuesTeams() throws Exception {
+        mockMvc.perform(post("/webhooks/dropbox")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Dropbox-Signature", sign(SECRET, BODY))
+                        .content(BODY))
+                .andExpect(status().isOk());
+
+        verify(teamRefreshService, times(1)).enqueue("dbtid:1", List.of("dbmid:1", "dbmid:2"));
+        verify(teamRefreshService, times(1)).enqueue("dbtid:2", List.of("dbmid:3"));
+        verify(teamRefreshService, times(2)).enqueue(anyString(), any());
+    }
+
+    private static String sign(String secret, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
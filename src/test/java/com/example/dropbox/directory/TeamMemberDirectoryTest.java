@@ -0,0 +1,74 @@
+package com.example.dropbox.directory;
+
+import com.example.dropbox.dto.TeamMemberDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TeamMemberDirectory Unit Tests")
+class TeamMemberDirectoryTest {
+
+    private TeamMemberDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        TeamMemberDirectory.Builder builder = TeamMemberDirectory.builder();
+        for (int i = 0; i < 300; i++) {
+            builder.add(new TeamMemberDTO("dbmid:" + i, "User" + i + "@Example.com", "User " + i,
+                    i % 10 == 0 ? "suspended" : "active", "member_only"));
+        }
+        directory = builder.build();
+    }
+
+    @Test
+    @DisplayName("Should look up members by team_member_id and case-insensitive email")
+    void testLookups() {
+        assertThat(directory.size()).isEqualTo(300);
+        assertThat(directory.findByTeamMemberId("dbmid:42"))
+                .get().extracting(TeamMemberDTO::getEmail).isEqualTo("User42@Example.com");
+        assertThat(directory.findByEmail("user42@example.com"))
+                .get().extracting(TeamMemberDTO::getTeamMemberId).isEqualTo("dbmid:42");
+        assertThat(directory.findByEmail("missing@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should ignore duplicate members across pages")
+    void testDuplicatesIgnored() {
+        TeamMemberDirectory deduped = TeamMemberDirectory.builder()
+                .add(new TeamMemberDTO("dbmid:1", "a@example.com", "A", "active", "member_only"))
+                .add(new TeamMemberDTO("dbmid:1", "a@example.com", "A", "active", "member_only"))
+                .build();
+
+        assertThat(deduped.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should page through all members and filtered matches")
+    void testSearchPaging() {
+        TeamMemberDirectory.Page lastPage = directory.search(null, 5, 50);
+        assertThat(lastPage.members()).hasSize(50);
+        assertThat(lastPage.totalPages()).isEqualTo(6);
+        assertThat(lastPage.hasNext()).isFalse();
+        assertThat(lastPage.members().get(0).getTeamMemberId()).isEqualTo("dbmid:250");
+
+        TeamMemberDirectory.Page filtered = directory.search("user 29", 0, 5);
+        assertThat(filtered.totalMatches()).isEqualTo(11);
+        assertThat(filtered.members()).hasSize(5);
+        assertThat(filtered.hasNext()).isTrue();
+
+        assertThat(directory.countByStatus("suspended")).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Should return an empty last page for a page index far past the end")
+    void testSearchPaging_HugePageIndex() {
+        TeamMemberDirectory.Page page = directory.search(null, Integer.MAX_VALUE, 50);
+
+        assertThat(page.members()).isEmpty();
+        assertThat(page.totalMatches()).isEqualTo(300);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.hasPrevious()).isTrue();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.dropbox.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DropboxApiMetrics Unit Tests")
+class DropboxApiMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private DropboxApiMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new DropboxApiMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Should time WebClient calls per endpoint and status once the body is read")
+    void testWebClientFilter_RecordsLatencyStatusAndSize() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header("Content-Type", "application/json")
+                        .body("{\"name\":\"Team\"}")
+                        .build()))
+                .filter(new MetricsExchangeFilterFunction(metrics))
+                .build();
+
+        webClient.post().uri("https://api.dropboxapi.com/2/team/get_info").retrieve().bodyToMono(String.class).block();
+
+        Timer timer = registry.get("dropbox.api.requests")
+                .tags("client", "web-client", "endpoint", "/2/team/get_info", "status", "200", "outcome", "SUCCESS")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(registry.get("dropbox.api.response.size").tag("client", "web-client").summary().totalAmount())
+                .isEqualTo(15);
+        assertThat(registry.get("dropbox.api.in.flight").tag("client", "web-client").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count error statuses for WebClient calls")
+    void testWebClientFilter_ErrorStatus() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).build()))
+                .filter(new MetricsExchangeFilterFunction(metrics))
+                .build();
+
+        assertThatThrownBy(() -> webClient.post().uri("https://api.dropboxapi.com/2/team/members/list")
+                .retrieve().bodyToMono(String.class).block())
+                .isInstanceOf(WebClientResponseException.TooManyRequests.class);
+
+        assertThat(registry.get("dropbox.api.requests")
+                .tags("endpoint", "/2/team/members/list", "status", "429", "outcome", "CLIENT_ERROR")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("dropbox.api.in.flight").tag("client", "web-client").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should time RestTemplate calls when the response is closed and size both payloads")
+    void testRestTemplateInterceptor_RecordsLatencyStatusAndSize() {
+        byte[] responseBody = "{\"admin_profile\":{}}".getBytes(StandardCharsets.UTF_8);
+        RestTemplate restTemplate = new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(new MockClientHttpResponse(responseBody, HttpStatus.OK));
+            return request;
+        });
+        restTemplate.getInterceptors().add(new MetricsClientHttpRequestInterceptor(metrics));
+
+        String body = restTemplate.postForObject(
+                "https://api.dropboxapi.com/2/team/token/get_authenticated_admin", "null", String.class);
+
+        assertThat(body).isEqualTo("{\"admin_profile\":{}}");
+        assertThat(registry.get("dropbox.api.requests")
+                .tags("client", "rest-template", "endpoint", "/2/team/token/get_authenticated_admin", "status", "200")
+                .timer().count()).isEqualTo(1);
+        DistributionSummary requestSize = registry.get("dropbox.api.request.size").tag("client", "rest-template").summary();
+        assertThat(requestSize.totalAmount()).isEqualTo(4);
+        assertThat(registry.get("dropbox.api.response.size").tag("client", "rest-template").summary().totalAmount())
+                .isEqualTo(responseBody.length);
+        assertThat(registry.get("dropbox.api.in.flight").tag("client", "rest-template").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.dropbox.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WebhookSignatureVerifier Unit Tests")
+class WebhookSignatureVerifierTest {
+
+    private static final byte[] BODY = "{\"list_folder\":{\"teams\":{\"dbtid:1\":[\"dbmid:1\"]}}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier(List.of("secret-a", "secret-b"));
+
+    @Test
+    @DisplayName("Should accept a body signed with any configured app secret")
+    void testVerify_ValidSignature() throws Exception {
+        assertThat(verifier.verify(BODY, sign("secret-a", BODY))).isTrue();
+        assertThat(verifier.verify(BODY, sign("secret-b", BODY).toUpperCase())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject missing, malformed, foreign and mismatched signatures")
+    void testVerify_InvalidSignature() throws Exception {
+        byte[] tampered = "{\"list_folder\":{}}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(verifier.verify(BODY, null)).isFalse();
+        assertThat(verifier.verify(BODY, "not-hex")).isFalse();
+        assertThat(verifier.verify(BODY, sign("other-secret", BODY))).isFalse();
+        assertThat(verifier.verify(tampered, sign("secret-a", BODY))).isFalse();
+        assertThat(new WebhookSignatureVerifier(List.of()).verify(BODY, sign("secret-a", BODY))).isFalse();
+    }
+
+    private static String sign(String secret, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.dropbox.serivce;
+
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.DashboardSectionDTO;
+import com.example.dropbox.dto.MemberCountsDTO;
+import com.example.dropbox.dto.SharingStatsDTO;
+import com.example.dropbox.dto.TeamEventDTO;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.service.DashboardAggregationService;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.MemberDirectoryService;
+import com.example.dropbox.service.TeamEventService;
+import com.example.dropbox.service.impl.DashboardAggregationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardAggregationServiceImpl Unit Tests")
+class DashboardAggregationServiceImplTest {
+
+    @Mock
+    private DropboxAPIService dropboxAPIService;
+
+    @Mock
+    private MemberDirectoryService memberDirectoryService;
+
+    @Mock
+    private TeamEventService teamEventService;
+
+    private DashboardAggregationServiceImpl aggregationService;
+
+    @BeforeEach
+    void setUp() {
+        Duration deadline = Duration.ofMillis(300);
+        aggregationService = new DashboardAggregationServiceImpl(dropboxAPIService, memberDirectoryService,
+                teamEventService, deadline, deadline, deadline, deadline, 10, Duration.ofDays(7));
+    }
+
+    @Test
+    @DisplayName("Should assemble every section when all calls finish in time")
+    void testStreamSections_AllSections() {
+        TeamInfoDTO teamInfo = new TeamInfoDTO("Team", "dbtid:1", 10, 8, 8);
+        TeamMemberDirectory directory = TeamMemberDirectory.builder()
+                .add(new TeamMemberDTO("dbmid:1", "a@example.com", "A", "active", "member_only"))
+                .add(new TeamMemberDTO("dbmid:2", "b@example.com", "B", "invited", "member_only"))
+                .build();
+        List<TeamEventDTO> events = List.of(new TeamEventDTO(1L, "sharing", "shared_link_create", "Created link",
+                "A", "a@example.com", "dbmid:1"));
+        SharingStatsDTO sharingStats = new SharingStatsDTO(Instant.EPOCH, 1, 1, 1);
+
+        when(dropboxAPIService.getTeamInfoAsync()).thenReturn(Mono.just(teamInfo));
+        when(memberDirectoryService.getDirectory()).thenReturn(Mono.just(directory));
+        when(teamEventService.getRecentEvents(anyInt())).thenReturn(events);
+        when(teamEventService.getSharingStats(any())).thenReturn(sharingStats);
+
+        Map<String, DashboardSectionDTO> sections = streamAll();
+
+        MemberCountsDTO memberCounts = (MemberCountsDTO) sections.get(DashboardAggregationService.MEMBER_COUNTS).getValue();
+        assertThat(sections.get(DashboardAggregationService.TEAM_INFO).getValue()).isEqualTo(teamInfo);
+        assertThat(memberCounts.getTotal()).isEqualTo(2);
+        assertThat(memberCounts.getActive()).isEqualTo(1);
+        assertThat(memberCounts.getInvited()).isEqualTo(1);
+        assertThat(sections.get(DashboardAggregationService.RECENT_EVENTS).getValue()).isEqualTo(events);
+        assertThat(sections.get(DashboardAggregationService.SHARING_STATS).getValue()).isEqualTo(sharingStats);
+        assertThat(sections.values()).allSatisfy(section -> assertThat(section.getUnavailable()).isNull());
+    }
+
+    @Test
+    @DisplayName("Should render finished sections and placeholders for slow or failed ones within the deadline")
+    void testStreamSections_PartialResults() {
+        TeamInfoDTO teamInfo = new TeamInfoDTO("Team", "dbtid:1", 10, 8, 8);
+
+        when(dropboxAPIService.getTeamInfoAsync()).thenReturn(Mono.just(teamInfo));
+        when(memberDirectoryService.getDirectory()).thenReturn(Mono.never());
+        when(teamEventService.getRecentEvents(anyInt())).thenReturn(List.of());
+        when(teamEventService.getSharingStats(any())).thenThrow(new IllegalStateException("store unavailable"));
+
+        long started = System.nanoTime();
+        Map<String, DashboardSectionDTO> sections = streamAll();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        DashboardSectionDTO memberCounts = sections.get(DashboardAggregationService.MEMBER_COUNTS);
+        DashboardSectionDTO sharingStats = sections.get(DashboardAggregationService.SHARING_STATS);
+        assertThat(elapsedMillis).isLessThan(2_000);
+        assertThat(sections.get(DashboardAggregationService.TEAM_INFO).getValue()).isEqualTo(teamInfo);
+        assertThat(sections.get(DashboardAggregationService.RECENT_EVENTS).getValue()).isEqualTo(List.of());
+        assertThat(memberCounts.getValue()).isNull();
+        assertThat(memberCounts.getUnavailable()).startsWith("Still loading");
+        assertThat(sharingStats.getValue()).isNull();
+        assertThat(sharingStats.getUnavailable()).contains("store unavailable");
+    }
+
+    @Test
+    @DisplayName("Should stream sections in completion order")
+    void testStreamSections_CompletionOrder() {
+        TeamInfoDTO teamInfo = new TeamInfoDTO("Team", "dbtid:1", 10, 8, 8);
+
+        when(dropboxAPIService.getTeamInfoAsync()).thenReturn(Mono.just(teamInfo).delayElement(Duration.ofMillis(100)));
+        when(teamEventService.getRecentEvents(anyInt())).thenReturn(List.of());
+
+        StepVerifier.create(aggregationService.streamSections(List.of(
+                                DashboardAggregationService.TEAM_INFO, DashboardAggregationService.RECENT_EVENTS))
+                        .map(DashboardSectionDTO::getName))
+                .expectNext(DashboardAggregationService.RECENT_EVENTS, DashboardAggregationService.TEAM_INFO)
+                .verifyComplete();
+    }
+
+    private Map<String, DashboardSectionDTO> streamAll() {
+        return aggregationService.streamSections(DashboardAggregationService.SECTIONS)
+                .collectMap(DashboardSectionDTO::getName)
+                .block();
+    }
+}
@@ -1,17 +1,38 @@
 package com.example.dropbox.serivce;
 
+import com.example.dropbox.cache.BatchLoader;
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.cache.SingleFlight;
+import com.example.dropbox.dto.MembersInfoDTO;
 import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.dto.TeamMembersPageDTO;
 import com.example.dropbox.service.impl.DropboxAPIServiceImpl;
+import com.example.dropbox.tenant.TenantWebClients;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -25,6 +46,9 @@ class DropboxAPIServiceImplTest {
     @Mock
     private WebClient webClient;
 
+    @Mock
+    private TenantWebClients tenantWebClients;
+
     @Mock
     private WebClient.RequestBodyUriSpec requestBodyUriSpec;
 
@@ -42,12 +66,30 @@ class DropboxAPIServiceImplTest {
     private static final String BASE_URL = "https://api.dropboxapi.com";
     private static final String ENDPOINT = "/2/team/get_info";
     private static final String FULL_URI = BASE_URL + ENDPOINT;
+    private static final String MEMBERS_ENDPOINT = "/2/team/members/list";
+    private static final String MEMBERS_GET_INFO_ENDPOINT = "/2/team/members/get_info_v2";
 
     @BeforeEach
     void setUp() {
-        dropboxAPIService = new DropboxAPIServiceImpl(webClient);
+        RefreshingCache<String, TeamInfoDTO> teamInfoCache = new RefreshingCache<>(
+                "team-info", Duration.ofMinutes(10), Duration.ofHours(1), 100, Runnable::run);
+        lenient().when(tenantWebClients.forTeam(any())).thenReturn(webClient);
+        RefreshingCache<String, TeamMemberDTO> memberInfoCache = new RefreshingCache<>(
+                "member-info", Duration.ofMinutes(10), Duration.ofHours(1), 100, Runnable::run);
+        BatchLoader<String, TeamMemberDTO> memberBatchLoader = new BatchLoader<>(
+                "member-lookup", Duration.ofMillis(20), 2, Schedulers.parallel());
+        dropboxAPIService = new DropboxAPIServiceImpl(tenantWebClients, teamInfoCache, new SingleFlight("test"),
+                memberInfoCache, memberBatchLoader);
         ReflectionTestUtils.setField(dropboxAPIService, "externalApiBaseUrl", BASE_URL);
         ReflectionTestUtils.setField(dropboxAPIService, "externalApiEndpoint", ENDPOINT);
+        ReflectionTestUtils.setField(dropboxAPIService, "membersEndpoint", MEMBERS_ENDPOINT);
+        ReflectionTestUtils.setField(dropboxAPIService, "membersPageSize", 2);
+        ReflectionTestUtils.setField(dropboxAPIService, "membersGetInfoEndpoint", MEMBERS_GET_INFO_ENDPOINT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -188,6 +230,198 @@ class DropboxAPIServiceImplTest {
         verify(requestBodyUriSpec).uri(FULL_URI);
     }
 
+    @Test
+    @DisplayName("Should serve repeated requests for the same team from cache")
+    void testGetTeamInfo_CachedPerTeam() {
+        TeamInfoDTO expectedTeamInfo = createTestTeamInfo();
+        authenticateAs("dbmid:admin1", "team123");
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(FULL_URI)).thenReturn(requestBodySpec);
+        when(requestBodySpec.attributes(any())).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq("Content-Type"), eq("application/json"))).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue("null")).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TeamInfoDTO.class)).thenReturn(Mono.just(expectedTeamInfo));
+
+        TeamInfoDTO first = dropboxAPIService.getTeamInfo();
+        authenticateAs("dbmid:admin2", "team123");
+        TeamInfoDTO second = dropboxAPIService.getTeamInfo();
+
+        assertThat(second).isSameAs(first);
+        verify(webClient, times(1)).post();
+    }
+
+    @Test
+    @DisplayName("Should emit team info from the non-blocking variant")
+    void testGetTeamInfoAsync_Success() {
+        TeamInfoDTO expectedTeamInfo = createTestTeamInfo();
+        authenticateAs("dbmid:admin1", "team123");
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(FULL_URI)).thenReturn(requestBodySpec);
+        when(requestBodySpec.attributes(any())).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq("Content-Type"), eq("application/json"))).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue("null")).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TeamInfoDTO.class)).thenReturn(Mono.just(expectedTeamInfo));
+
+        StepVerifier.create(dropboxAPIService.getTeamInfoAsync())
+                .expectNext(expectedTeamInfo)
+                .verifyComplete();
+        StepVerifier.create(dropboxAPIService.getTeamInfoAsync())
+                .expectNext(expectedTeamInfo)
+                .verifyComplete();
+
+        verify(webClient, times(1)).post();
+    }
+
+    @Test
+    @DisplayName("Should signal RuntimeException from the non-blocking variant on upstream error")
+    void testGetTeamInfoAsync_ServerError() {
+        WebClientResponseException serverException = WebClientResponseException.create(
+                503,
+                "Service Unavailable",
+                null,
+                null,
+                null
+        );
+        authenticateAs("dbmid:admin1", "team123");
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(FULL_URI)).thenReturn(requestBodySpec);
+        when(requestBodySpec.attributes(any())).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq("Content-Type"), eq("application/json"))).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue("null")).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TeamInfoDTO.class)).thenReturn(Mono.error(serverException));
+
+        StepVerifier.create(dropboxAPIService.getTeamInfoAsync())
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(RuntimeException.class)
+                        .hasMessageContaining("Failed to fetch team info")
+                        .hasCauseInstanceOf(WebClientResponseException.class))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should stream team members across cursor pages")
+    void testStreamTeamMembers_FollowsCursor() {
+        TeamMembersPageDTO firstPage = new TeamMembersPageDTO(
+                List.of(member("dbmid:1", "a@example.com"), member("dbmid:2", "b@example.com")), "cursor-1", true);
+        TeamMembersPageDTO lastPage = new TeamMembersPageDTO(
+                List.of(member("dbmid:3", "c@example.com")), "cursor-2", false);
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
+        when(requestBodySpec.attributes(any())).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq("Content-Type"), eq("application/json"))).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue(any())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TeamMembersPageDTO.class))
+                .thenReturn(Mono.just(firstPage), Mono.just(lastPage));
+
+        StepVerifier.create(dropboxAPIService.streamTeamMembers().map(TeamMemberDTO::getTeamMemberId))
+                .expectNext("dbmid:1", "dbmid:2", "dbmid:3")
+                .verifyComplete();
+
+        verify(requestBodyUriSpec).uri(BASE_URL + MEMBERS_ENDPOINT);
+        verify(requestBodyUriSpec).uri(BASE_URL + MEMBERS_ENDPOINT + "/continue");
+        verify(requestBodySpec).bodyValue(Map.of("limit", 2));
+        verify(requestBodySpec).bodyValue(Map.of("cursor", "cursor-1"));
+    }
+
+    @Test
+    @DisplayName("Should share one upstream call between identical concurrent requests for a team")
+    void testStreamTeamMembers_CoalescesConcurrentCalls() {
+        authenticateAs("dbmid:admin", "dbtid:team");
+        Sinks.One<TeamMembersPageDTO> response = Sinks.one();
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
+        when(requestBodySpec.attributes(any())).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq("Content-Type"), eq("application/json"))).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue(any())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TeamMembersPageDTO.class)).thenReturn(response.asMono());
+
+        List<TeamMemberDTO> first = new ArrayList<>();
+        List<TeamMemberDTO> second = new ArrayList<>();
+        dropboxAPIService.streamTeamMembers().subscribe(first::add);
+        dropboxAPIService.streamTeamMembers().subscribe(second::add);
+        response.tryEmitValue(new TeamMembersPageDTO(List.of(member("dbmid:1", "a@example.com")), "cursor-1", false));
+
+        assertThat(first).extracting(TeamMemberDTO::getTeamMemberId).containsExactly("dbmid:1");
+        assertThat(second).extracting(TeamMemberDTO::getTeamMemberId).containsExactly("dbmid:1");
+        verify(webClient, times(1)).post();
+    }
+
+    @Test
+    @DisplayName("Should resolve member lookups in batches of get_info_v2 calls and cache them by id and email")
+    void testGetMembers_BatchedAndCached() {
+        authenticateAs("dbmid:admin", "dbtid:team1");
+        AtomicReference<Object> lastBody = new AtomicReference<>();
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(BASE_URL + MEMBERS_GET_INFO_ENDPOINT)).thenReturn(requestBodySpec);
+        when(requestBodySpec.attributes(any())).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq("Content-Type"), eq("application/json"))).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue(any())).thenAnswer(invocation -> {
+            lastBody.set(invocation.getArgument(0));
+            return requestHeadersSpec;
+        });
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(MembersInfoDTO.class))
+                .thenAnswer(invocation -> Mono.just(membersInfo(lastBody.get())));
+
+        Map<String, TeamMemberDTO> members = dropboxAPIService
+                .getMembers(List.of("dbmid:1", "dbmid:2", "B@Example.com", "dbmid:missing", "dbmid:1"))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(members).containsOnlyKeys("dbmid:1", "dbmid:2", "B@Example.com");
+        assertThat(members.get("B@Example.com").getTeamMemberId()).isEqualTo("dbmid:b");
+        assertThat(members.get("dbmid:1").getRole()).isEqualTo("member_only");
+        verify(webClient, times(2)).post();
+
+        TeamMemberDTO byId = dropboxAPIService.getMember("dbmid:b").block(Duration.ofSeconds(5));
+
+        assertThat(byId.getEmail()).isEqualTo("b@example.com");
+        verify(webClient, times(2)).post();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MembersInfoDTO membersInfo(Object body) {
+        List<MembersInfoDTO.Entry> entries = new ArrayList<>();
+        for (Map<String, String> selector : ((Map<String, List<Map<String, String>>>) body).get("members")) {
+            String id = selector.containsKey("email")
+                    ? "dbmid:" + selector.get("email").substring(0, 1)
+                    : selector.get("team_member_id");
+            if (id.equals("dbmid:missing")) {
+                entries.add(new MembersInfoDTO.Entry("id_not_found", null, null));
+                continue;
+            }
+            String email = id.substring("dbmid:".length()) + "@example.com";
+            entries.add(new MembersInfoDTO.Entry("member_info", new TeamMembersPageDTO.Profile(id, email,
+                    new TeamMembersPageDTO.Name("Name " + id), new TeamMembersPageDTO.Tag("active")), List.of()));
+        }
+        return new MembersInfoDTO(entries);
+    }
+
+    private TeamMembersPageDTO.Member member(String teamMemberId, String email) {
+        TeamMembersPageDTO.Profile profile = new TeamMembersPageDTO.Profile(teamMemberId, email,
+                new TeamMembersPageDTO.Name("Name " + teamMemberId), new TeamMembersPageDTO.Tag("active"));
+        return new TeamMembersPageDTO.Member(profile, new TeamMembersPageDTO.Tag("member_only"));
+    }
+
+    private void authenticateAs(String teamMemberId, String teamId) {
+        DefaultOAuth2User user = new DefaultOAuth2User(
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN"),
+                Map.of("admin_profile.team_member_id", teamMemberId, "team_id", teamId),
+                "admin_profile.team_member_id");
+        SecurityContextHolder.getContext().setAuthentication(
+                new OAuth2AuthenticationToken(user, user.getAuthorities(), "dbx"));
+    }
+
     private TeamInfoDTO createTestTeamInfo() {
         TeamInfoDTO teamInfo = new TeamInfoDTO();
         teamInfo.setName("Test Team");
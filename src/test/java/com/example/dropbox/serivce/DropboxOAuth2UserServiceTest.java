@@ -0,0 +1,193 @@
+package com.example.dropbox.serivce;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.exception.OAuth2UserInfoException;
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.service.impl.DropboxOAuth2UserService;
+import com.example.dropbox.utils.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DropboxOAuth2UserService Unit Tests")
+class DropboxOAuth2UserServiceTest {
+
+    private static final String USER_INFO_URI = "https://api.dropboxapi.com/2/team/token/get_authenticated_admin";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private RefreshingCache<String, DropboxAdminPrincipal> cache;
+
+    private RefreshingCache<String, String> principalKeys;
+
+    private DropboxOAuth2UserService userService;
+
+    private final ClientRegistration registration = ClientRegistration.withRegistrationId("dbx")
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .authorizationUri("https://www.dropbox.com/oauth2/authorize")
+            .tokenUri("https://api.dropboxapi.com/oauth2/token")
+            .userInfoUri(USER_INFO_URI)
+            .userNameAttributeName(Constants.TEAM_MEMBER_ID_ATTR)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        cache = new RefreshingCache<>("admin-profile", Duration.ofMinutes(5), Duration.ZERO, 100, Runnable::run);
+        principalKeys = new RefreshingCache<>("admin-principal-keys", Duration.ofMinutes(5), Duration.ZERO, 2, Runnable::run);
+        userService = new DropboxOAuth2UserService(restTemplate, cache, principalKeys);
+    }
+
+    @Test
+    @DisplayName("Should reuse resolved admin attributes when the same account logs in again")
+    void loadUser_SameAccount_ReusesCachedAttributes() {
+        stubAdminResponse("dbmid:admin");
+
+        OAuth2User first = userService.loadUser(userRequest("token-1", "dbid:account"));
+        OAuth2User second = userService.loadUser(userRequest("token-2", "dbid:account"));
+
+        assertThat(first.getName()).isEqualTo("dbmid:admin");
+        assertThat(second.getName()).isEqualTo("dbmid:admin");
+        assertThat(second.<String>getAttribute(Constants.TEAM_ID_KEY)).isEqualTo("dbtid:team");
+        verifyUserInfoCalls(1);
+    }
+
+    @Test
+    @DisplayName("Should read only the admin profile fields into a compact principal")
+    void loadUser_ValidResponse_ReturnsCompactPrincipal() {
+        stubAdminResponse("dbmid:admin");
+
+        OAuth2User user = userService.loadUser(userRequest("token-1", "dbid:account"));
+
+        assertThat(user).isInstanceOf(DropboxAdminPrincipal.class);
+        assertThat(user.getAttributes()).containsOnly(
+                entry(Constants.TEAM_MEMBER_ID_ATTR, "dbmid:admin"),
+                entry(Constants.EMAIL_ATTR, "admin@example.com"),
+                entry(Constants.DISPLAY_NAME_ATTR, "Admin User"),
+                entry(Constants.TEAM_ID_KEY, "dbtid:team"));
+        assertThat(user.getAuthorities()).extracting("authority").containsExactly(Constants.ROLE_ADMIN);
+    }
+
+    @Test
+    @DisplayName("Should reject a response without an admin profile")
+    void loadUser_MissingAdminProfile_Throws() {
+        when(restTemplate.execute(eq(USER_INFO_URI), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(new MockClientHttpResponse("{}".getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+                });
+
+        assertThatThrownBy(() -> userService.loadUser(userRequest("token-1", null)))
+                .isInstanceOf(OAuth2UserInfoException.class)
+                .hasMessageContaining("Missing admin profile");
+    }
+
+    @Test
+    @DisplayName("Should key by token hash when the token response has no account id")
+    void loadUser_NoAccountId_KeysByToken() {
+        stubAdminResponse("dbmid:admin");
+
+        userService.loadUser(userRequest("token-1", null));
+        userService.loadUser(userRequest("token-1", null));
+        userService.loadUser(userRequest("token-2", null));
+
+        verifyUserInfoCalls(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop the cached attributes on logout")
+    void evictCachedUser_AfterLogout_RefetchesOnNextLogin() {
+        stubAdminResponse("dbmid:admin");
+
+        userService.loadUser(userRequest("token-1", "dbid:account"));
+        userService.evictCachedUser("dbmid:admin");
+        userService.loadUser(userRequest("token-2", "dbid:account"));
+
+        verifyUserInfoCalls(2);
+    }
+
+    @Test
+    @DisplayName("Should keep logout lookups bounded when sessions expire without a logout")
+    void loadUser_ManyAdmins_BoundsLogoutLookups() {
+        stubAdminResponse("dbmid:1", "dbmid:2", "dbmid:3", "dbmid:3");
+
+        userService.loadUser(userRequest("token-1", "dbid:1"));
+        userService.loadUser(userRequest("token-2", "dbid:2"));
+        userService.loadUser(userRequest("token-3", "dbid:3"));
+
+        assertThat(principalKeys.size()).isEqualTo(2);
+        assertThat(principalKeys.getIfPresent("dbmid:1")).isNull();
+
+        userService.evictCachedUser("dbmid:3");
+        userService.loadUser(userRequest("token-4", "dbid:3"));
+
+        verifyUserInfoCalls(4);
+    }
+
+    // Answers with the given admins in turn, repeating the last one.
+    private void stubAdminResponse(String... teamMemberIds) {
+        AtomicInteger calls = new AtomicInteger();
+
+        when(restTemplate.execute(eq(USER_INFO_URI), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    String teamMemberId = teamMemberIds[Math.min(calls.getAndIncrement(), teamMemberIds.length - 1)];
+                    String body = """
+                            {"admin_profile": {"team_member_id": "%s", "email": "admin@example.com",
+                              "account_id": "dbid:account", "status": {".tag": "active"},
+                              "name": {"given_name": "Admin", "display_name": "Admin User"},
+                              "groups": ["g1", "g2"]}}
+                            """.formatted(teamMemberId);
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+                });
+    }
+
+    private void verifyUserInfoCalls(int times) {
+        verify(restTemplate, times(times))
+                .execute(eq(USER_INFO_URI), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    private OAuth2UserRequest userRequest(String tokenValue, String accountId) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                tokenValue, Instant.now(), Instant.now().plusSeconds(3600));
+
+        Map<String, Object> additionalParameters = new HashMap<>();
+        additionalParameters.put(Constants.TEAM_ID_KEY, "dbtid:team");
+        if (accountId != null) {
+            additionalParameters.put(Constants.ACCOUNT_ID_KEY, accountId);
+        }
+        return new OAuth2UserRequest(registration, accessToken, additionalParameters);
+    }
+}
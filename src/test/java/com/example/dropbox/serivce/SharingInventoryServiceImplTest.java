@@ -0,0 +1,122 @@
+package com.example.dropbox.serivce;
+
+import com.example.dropbox.directory.SharingInventory;
+import com.example.dropbox.dto.SharingCrawlStatusDTO;
+import com.example.dropbox.dto.SharingEntryDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.exception.DropboxApiException;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.impl.SharingInventoryServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SharingInventoryServiceImpl Unit Tests")
+class SharingInventoryServiceImplTest {
+
+    @Mock
+    private DropboxAPIService dropboxAPIService;
+
+    @TempDir
+    Path storageDir;
+
+    private SharingInventoryServiceImpl sharingInventoryService;
+
+    @BeforeEach
+    void setUp() {
+        sharingInventoryService = new SharingInventoryServiceImpl(dropboxAPIService, storageDir, 4);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("dbmid:admin", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sharingInventoryService.stopCrawls();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should retry only the members a failed crawl missed, then publish the inventory")
+    void testStartCrawl_ResumesAfterFailures() throws InterruptedException {
+        when(dropboxAPIService.streamTeamMembers()).thenReturn(Flux.just(
+                member("dbmid:1", "active"), member("dbmid:2", "active"), member("dbmid:3", "invited")));
+        when(dropboxAPIService.streamSharedFolders("dbmid:1")).thenReturn(Flux.just(
+                new SharingEntryDTO(SharingEntryDTO.FOLDER, "dbmid:1", "1000", "Project", "/project", "owner")));
+        when(dropboxAPIService.streamSharedLinks("dbmid:1")).thenReturn(Flux.empty());
+        when(dropboxAPIService.streamSharedFolders("dbmid:2")).thenReturn(
+                Flux.error(new DropboxApiException("busy", HttpStatus.TOO_MANY_REQUESTS, Duration.ofSeconds(1), null)),
+                Flux.just(new SharingEntryDTO(SharingEntryDTO.FOLDER, "dbmid:2", "1000", "Project", "/project", "editor")));
+        when(dropboxAPIService.streamSharedLinks("dbmid:2")).thenReturn(Flux.just(
+                new SharingEntryDTO(SharingEntryDTO.LINK, "dbmid:2", "https://www.dropbox.com/s/a", "a.pdf", null, "public")));
+
+        sharingInventoryService.startCrawl();
+        SharingCrawlStatusDTO first = awaitFinished();
+        assertThat(first.getState()).isEqualTo(SharingCrawlStatusDTO.INCOMPLETE);
+        assertThat(first.getMembersCrawled()).isEqualTo(1);
+        assertThat(first.getMembersFailed()).isEqualTo(1);
+        assertThat(sharingInventoryService.getInventory()).isEmpty();
+
+        sharingInventoryService.startCrawl();
+        SharingCrawlStatusDTO second = awaitFinished();
+        assertThat(second.getState()).isEqualTo(SharingCrawlStatusDTO.COMPLETED);
+        assertThat(second.getMembersCrawled()).isEqualTo(2);
+
+        SharingInventory inventory = sharingInventoryService.getInventory().orElseThrow();
+        assertThat(inventory.getSharedFolders()).isEqualTo(1);
+        assertThat(inventory.getSharedLinks()).isEqualTo(1);
+        assertThat(inventory.getPublicLinks()).isEqualTo(1);
+        assertThat(inventory.getMembersCrawled()).isEqualTo(2);
+        verify(dropboxAPIService, never()).streamSharedFolders("dbmid:3");
+    }
+
+    @Test
+    @DisplayName("Should end a crawl as incomplete when the team's store fails to open, and allow a new one")
+    void testStartCrawl_StoreOpenFails() throws Exception {
+        // A plain file where the team's store directory should be makes opening it fail.
+        Path blocked = storageDir.resolve("sharing").resolve("dbmid_admin");
+        Files.createDirectories(blocked.getParent());
+        Files.writeString(blocked, "not a directory");
+
+        sharingInventoryService.startCrawl();
+        assertThat(awaitFinished().getState()).isEqualTo(SharingCrawlStatusDTO.INCOMPLETE);
+
+        Files.delete(blocked);
+        when(dropboxAPIService.streamTeamMembers()).thenReturn(Flux.empty());
+
+        assertThat(sharingInventoryService.startCrawl().getState()).isEqualTo(SharingCrawlStatusDTO.RUNNING);
+        assertThat(awaitFinished().getState()).isEqualTo(SharingCrawlStatusDTO.COMPLETED);
+    }
+
+    private SharingCrawlStatusDTO awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        SharingCrawlStatusDTO status = sharingInventoryService.getStatus();
+        while (SharingCrawlStatusDTO.RUNNING.equals(status.getState()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = sharingInventoryService.getStatus();
+        }
+        return status;
+    }
+
+    private static TeamMemberDTO member(String teamMemberId, String status) {
+        return new TeamMemberDTO(teamMemberId, teamMemberId + "@example.com", teamMemberId, status, "member_only");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.dropbox.serivce;
+
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.impl.TeamEventServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.ClientAuthorizationException;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TeamEventServiceImpl Unit Tests")
+class TeamEventServiceImplTest {
+
+    @Mock
+    private DropboxAPIService dropboxAPIService;
+
+    @TempDir
+    Path storageDir;
+
+    private TeamEventServiceImpl teamEventService;
+
+    @BeforeEach
+    void setUp() {
+        teamEventService = new TeamEventServiceImpl(dropboxAPIService, true, storageDir, DataSize.ofKilobytes(64),
+                4, 10, Duration.ofDays(1), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        teamEventService.closeStores();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should keep polling other teams, and the failed team later, when a store fails to open")
+    void testPollTrackedTeams_StoreOpenFails() throws IOException {
+        // A plain file where team1's store directory should be makes opening it fail.
+        Path blocked = storageDir.resolve("events").resolve("team1");
+        Files.createDirectories(blocked.getParent());
+        Files.writeString(blocked, "not a directory");
+        when(dropboxAPIService.streamTeamEvents(any(), any())).thenReturn(Flux.empty());
+        track("team1");
+        track("team2");
+
+        teamEventService.pollTrackedTeams();
+
+        verify(dropboxAPIService, times(1)).streamTeamEvents(any(), any());
+
+        Files.delete(blocked);
+        teamEventService.pollTeam("team1");
+
+        verify(dropboxAPIService, times(2)).streamTeamEvents(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop polling a team once its admin logs out")
+    void testUntrack_StopsPolling() {
+        Authentication admin = track("team1");
+
+        teamEventService.untrack(admin);
+        teamEventService.pollTrackedTeams();
+
+        verify(dropboxAPIService, never()).streamTeamEvents(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep polling a team when an admin other than the tracked one logs out")
+    void testUntrack_OtherAdminKeepsTeamTracked() {
+        when(dropboxAPIService.streamTeamEvents(any(), any())).thenReturn(Flux.empty());
+        track(admin("dbmid:admin1"));
+
+        teamEventService.untrack(admin("dbmid:admin2"));
+        teamEventService.pollTrackedTeams();
+
+        verify(dropboxAPIService, times(1)).streamTeamEvents(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop polling a team whose grant was revoked")
+    void testPollTeam_InvalidGrantUntracksTeam() {
+        when(dropboxAPIService.streamTeamEvents(any(), any())).thenReturn(Flux.error(
+                new ClientAuthorizationException(new OAuth2Error(OAuth2ErrorCodes.INVALID_GRANT), "dbx")));
+        track("team1");
+
+        teamEventService.pollTeam("team1");
+        teamEventService.pollTeam("team1");
+
+        verify(dropboxAPIService, times(1)).streamTeamEvents(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep polling a team after a failure that isn't about authorization")
+    void testPollTeam_OtherFailureKeepsTeamTracked() {
+        when(dropboxAPIService.streamTeamEvents(any(), any()))
+                .thenReturn(Flux.error(new IllegalStateException("boom")));
+        track("team1");
+
+        teamEventService.pollTeam("team1");
+        teamEventService.pollTeam("team1");
+
+        verify(dropboxAPIService, times(2)).streamTeamEvents(any(), any());
+    }
+
+    private Authentication track(String teamKey) {
+        return track(new TestingAuthenticationToken(teamKey, null));
+    }
+
+    private Authentication track(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        teamEventService.trackCurrentTeam();
+        return authentication;
+    }
+
+    private static Authentication admin(String teamMemberId) {
+        DropboxAdminPrincipal principal =
+                new DropboxAdminPrincipal(teamMemberId, "admin@example.com", "Admin User", "dbtid:team");
+        return new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "dbx");
+    }
+}
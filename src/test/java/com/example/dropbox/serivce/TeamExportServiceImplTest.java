@@ -0,0 +1,83 @@
+package com.example.dropbox.serivce;
+
+import com.example.dropbox.dto.TeamEventsPageDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.TeamExportService;
+import com.example.dropbox.service.impl.TeamExportServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TeamExportServiceImpl Unit Tests")
+class TeamExportServiceImplTest {
+
+    @Mock
+    private DropboxAPIService dropboxAPIService;
+
+    private TeamExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TeamExportServiceImpl(dropboxAPIService);
+    }
+
+    @Test
+    @DisplayName("Should write members as escaped CSV, pulling one page at a time")
+    void testExportMembers_Csv() throws Exception {
+        AtomicInteger requested = new AtomicInteger();
+        Flux<List<TeamMemberDTO>> pages = Flux.just(
+                        List.of(new TeamMemberDTO("dbmid:1", "a@example.com", "Doe, Jane", "active", "team_admin")),
+                        List.of(new TeamMemberDTO("dbmid:2", "b@example.com", "=HYPERLINK(\"x\")", "invited", null)))
+                .doOnRequest(n -> requested.addAndGet((int) Math.min(n, Integer.MAX_VALUE)));
+        when(dropboxAPIService.streamTeamMemberPages()).thenReturn(pages);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportMembers(TeamExportService.Format.CSV, out);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(requested).hasValueLessThanOrEqualTo(3);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "team_member_id,email,display_name,status,role\r\n"
+                        + "dbmid:1,a@example.com,\"Doe, Jane\",active,team_admin\r\n"
+                        + "dbmid:2,b@example.com,\"'=HYPERLINK(\"\"x\"\")\",invited,\r\n");
+    }
+
+    @Test
+    @DisplayName("Should write events as NDJSON exactly as Dropbox returned them")
+    void testExportEvents_Ndjson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"event_type\":{\".tag\":\"login_success\"}}");
+        JsonNode second = mapper.readTree("{\"timestamp\":\"2024-01-02T00:00:00Z\",\"details\":{\"note\":\"a\\nb\"}}");
+        when(dropboxAPIService.streamTeamEvents(isNull(), any(Instant.class))).thenReturn(Flux.just(
+                new TeamEventsPageDTO(List.of(first), "c1", true),
+                new TeamEventsPageDTO(List.of(second), "c2", false)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportEvents(TeamExportService.Format.NDJSON, Instant.EPOCH, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readTree(lines[0])).isEqualTo(first);
+        assertThat(mapper.readTree(lines[1])).isEqualTo(second);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.dropbox.serivce;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.service.DropboxAPIService;
+import com.example.dropbox.service.TeamEventService;
+import com.example.dropbox.service.impl.TeamRefreshServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TeamRefreshServiceImpl Unit Tests")
+class TeamRefreshServiceImplTest {
+
+    @Mock
+    private RefreshingCache<String, TeamInfoDTO> teamInfoCache;
+
+    @Mock
+    private RefreshingCache<String, TeamMemberDirectory> memberDirectoryCache;
+
+    @Mock
+    private DropboxAPIService dropboxAPIService;
+
+    @Mock
+    private TeamEventService teamEventService;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private TeamRefreshServiceImpl refreshService;
+
+    @BeforeEach
+    void setUp() {
+        refreshService = new TeamRefreshServiceImpl(teamInfoCache, memberDirectoryCache, dropboxAPIService,
+                teamEventService, Duration.ofSeconds(5), Duration.ofSeconds(30), 2, now::get);
+    }
+
+    @Test
+    @DisplayName("Should merge a burst of notifications into one refresh once the team is quiet")
+    void testDispatchDue_Debounced() {
+        refreshService.enqueue("team1", List.of("dbmid:1"));
+        now.addAndGet(3_000);
+        refreshService.enqueue("team1", List.of("dbmid:1", "dbmid:2"));
+        now.addAndGet(3_000);
+        refreshService.dispatchDue();
+
+        verifyNoInteractions(teamInfoCache, memberDirectoryCache, dropboxAPIService, teamEventService);
+        assertThat(refreshService.pendingTeams()).isEqualTo(1);
+
+        now.addAndGet(2_000);
+        refreshService.dispatchDue();
+        refreshService.dispatchDue();
+
+        verify(teamInfoCache, times(1)).expire("team1");
+        verify(memberDirectoryCache, times(1)).expire("team1");
+        verify(dropboxAPIService, times(1)).expireMembers("team1", Set.of("dbmid:1", "dbmid:2"));
+        verify(teamEventService, times(1)).pollTeam("team1");
+        assertThat(refreshService.pendingTeams()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should refresh a constantly notified team after the max delay")
+    void testDispatchDue_MaxDelay() {
+        for (int i = 0; i < 10; i++) {
+            refreshService.enqueue("team1", List.of("dbmid:1"));
+            now.addAndGet(4_000);
+            refreshService.dispatchDue();
+        }
+
+        verify(teamEventService, times(1)).pollTeam("team1");
+    }
+
+    @Test
+    @DisplayName("Should drop notifications for new teams when too many are pending")
+    void testEnqueue_MaxPendingTeams() {
+        refreshService.enqueue("team1", List.of());
+        refreshService.enqueue("team2", List.of());
+        refreshService.enqueue("team3", List.of());
+        refreshService.enqueue("team1", List.of("dbmid:1"));
+
+        assertThat(refreshService.pendingTeams()).isEqualTo(2);
+
+        now.addAndGet(5_000);
+        refreshService.dispatchDue();
+
+        verify(teamEventService).pollTeam("team1");
+        verify(teamEventService).pollTeam("team2");
+        verify(teamEventService, never()).pollTeam("team3");
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.dropbox.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CompactSessionRepository Unit Tests")
+class CompactSessionRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should find a file-backed session after the repository is recreated")
+    void testFileStore_SurvivesRestart() {
+        CompactSessionRepository repository = fileRepository();
+        CompactSessionRepository.CompactSession session = repository.createSession();
+        session.setAttribute("locale", "en");
+        repository.save(session);
+
+        CompactSessionRepository.CompactSession reloaded = fileRepository().findById(session.getId());
+
+        assertThat(reloaded).isNotNull();
+        assertThat(reloaded.<String>getAttribute("locale")).isEqualTo("en");
+    }
+
+    @Test
+    @DisplayName("Should drop the old record when the session id changes")
+    void testChangeSessionId_RemovesOldRecord() {
+        MemoryBinaryStore store = new MemoryBinaryStore();
+        CompactSessionRepository repository = new CompactSessionRepository(store, Duration.ofMinutes(30), Duration.ofMinutes(1));
+        CompactSessionRepository.CompactSession session = repository.createSession();
+        repository.save(session);
+        String originalId = session.getId();
+
+        CompactSessionRepository.CompactSession loaded = repository.findById(originalId);
+        loaded.changeSessionId();
+        repository.save(loaded);
+
+        assertThat(store.get(originalId)).isNull();
+        assertThat(repository.findById(loaded.getId())).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should skip rewriting an unchanged session until the touch interval has passed")
+    void testSave_UnchangedSessionWithinTouchInterval_NotRewritten() {
+        MemoryBinaryStore store = new MemoryBinaryStore();
+        CompactSessionRepository repository = new CompactSessionRepository(store, Duration.ofMinutes(30), Duration.ofMinutes(1));
+        CompactSessionRepository.CompactSession session = repository.createSession();
+        repository.save(session);
+        byte[] persisted = store.get(session.getId());
+
+        CompactSessionRepository.CompactSession loaded = repository.findById(session.getId());
+        loaded.setLastAccessedTime(loaded.getLastAccessedTime().plusSeconds(10));
+        repository.save(loaded);
+        assertThat(store.get(session.getId())).isSameAs(persisted);
+
+        loaded.setLastAccessedTime(loaded.getLastAccessedTime().plusSeconds(60));
+        repository.save(loaded);
+        assertThat(store.get(session.getId())).isNotSameAs(persisted);
+    }
+
+    @Test
+    @DisplayName("Should round-trip authorized clients and re-attach the registration")
+    void testAuthorizedClientService_RoundTrip() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("dbx")
+                .clientId("client")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("https://www.dropbox.com/oauth2/authorize")
+                .tokenUri("https://api.dropboxapi.com/oauth2/token")
+                .build();
+        CompactOAuth2AuthorizedClientService service = new CompactOAuth2AuthorizedClientService(
+                new InMemoryClientRegistrationRepository(registration), new FileBinaryStore(directory));
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "access", issuedAt, issuedAt.plusSeconds(14400), Set.of("team_info.read"));
+
+        service.saveAuthorizedClient(
+                new OAuth2AuthorizedClient(registration, "dbmid:admin", accessToken, new OAuth2RefreshToken("refresh", issuedAt)),
+                new TestingAuthenticationToken("dbmid:admin", null));
+
+        OAuth2AuthorizedClient loaded = service.loadAuthorizedClient("dbx", "dbmid:admin");
+        assertThat(loaded.getClientRegistration()).isSameAs(registration);
+        assertThat(loaded.getAccessToken().getTokenValue()).isEqualTo("access");
+        assertThat(loaded.getAccessToken().getExpiresAt()).isEqualTo(issuedAt.plusSeconds(14400));
+        assertThat(loaded.getAccessToken().getScopes()).containsExactly("team_info.read");
+        assertThat(loaded.getRefreshToken().getTokenValue()).isEqualTo("refresh");
+        assertThat(service.loadAll()).hasSize(1);
+
+        service.removeAuthorizedClient("dbx", "dbmid:admin");
+        OAuth2AuthorizedClient removed = service.loadAuthorizedClient("dbx", "dbmid:admin");
+        assertThat(removed).isNull();
+    }
+
+    private CompactSessionRepository fileRepository() {
+        return new CompactSessionRepository(new FileBinaryStore(directory), Duration.ofMinutes(30), Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.dropbox.session;
+
+import com.example.dropbox.security.DropboxAdminPrincipal;
+import com.example.dropbox.utils.Constants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.session.MapSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SessionCodec Unit Tests")
+class SessionCodecTest {
+
+    private static final String CONTEXT_KEY = "SPRING_SECURITY_CONTEXT";
+
+    @Test
+    @DisplayName("Should round-trip a signed-in admin session")
+    void testRoundTrip_AdminSession() {
+        MapSession session = adminSession();
+
+        MapSession decoded = SessionCodec.decode(SessionCodec.encode(session));
+
+        assertThat(decoded.getId()).isEqualTo(session.getId());
+        assertThat(decoded.getMaxInactiveInterval()).isEqualTo(Duration.ofMinutes(30));
+        assertThat(decoded.<String>getAttribute("locale")).isEqualTo("en");
+
+        SecurityContext context = decoded.getAttribute(CONTEXT_KEY);
+        OAuth2AuthenticationToken token = (OAuth2AuthenticationToken) context.getAuthentication();
+        assertThat(token.getAuthorizedClientRegistrationId()).isEqualTo("dbx");
+        assertThat(token.getName()).isEqualTo("dbmid:admin");
+        assertThat(token.getPrincipal().<String>getAttribute(Constants.TEAM_ID_KEY)).isEqualTo("dbtid:team");
+        assertThat(((WebAuthenticationDetails) token.getDetails()).getRemoteAddress()).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("Should detect expiry from the header alone")
+    void testIsExpired_HeaderOnly() {
+        MapSession session = adminSession();
+        byte[] encoded = SessionCodec.encode(session);
+
+        assertThat(SessionCodec.isExpired(encoded, session.getLastAccessedTime().plusSeconds(60))).isFalse();
+        assertThat(SessionCodec.isExpired(encoded, session.getLastAccessedTime().plus(Duration.ofMinutes(31)))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should store a session in far fewer bytes than Java serialization of the previous principal")
+    void testBytesPerSession() throws Exception {
+        byte[] compact = SessionCodec.encode(adminSession());
+
+        Map<String, Object> adminProfile = Map.of(
+                "team_member_id", "dbmid:admin",
+                "email", "admin@example.com",
+                "account_id", "dbid:AAH4f99T0taONIb-OurWxbNQ6ywGRopQngc",
+                "status", Map.of(".tag", "active"),
+                "membership_type", Map.of(".tag", "full"),
+                "name", Map.of("given_name", "Admin", "surname", "User",
+                        "familiar_name", "Admin", "display_name", "Admin User", "abbreviated_name", "AU"),
+                "groups", List.of("g:1234567890abcdef", "g:fedcba0987654321"));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(Constants.ADMIN_PROFILE_KEY, adminProfile);
+        attributes.put(Constants.TEAM_MEMBER_ID_ATTR, "dbmid:admin");
+        attributes.put(Constants.EMAIL_ATTR, "admin@example.com");
+        attributes.put(Constants.DISPLAY_NAME_ATTR, "Admin User");
+        attributes.put(Constants.TEAM_ID_KEY, "dbtid:team");
+        DefaultOAuth2User previous = new DefaultOAuth2User(
+                AuthorityUtils.createAuthorityList(Constants.ROLE_ADMIN), attributes, Constants.TEAM_MEMBER_ID_ATTR);
+        OAuth2AuthenticationToken previousToken =
+                new OAuth2AuthenticationToken(previous, previous.getAuthorities(), "dbx");
+        previousToken.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-id"));
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(new SecurityContextImpl(previousToken));
+        }
+
+        assertThat(compact.length).isLessThan(serialized.size() / 5);
+    }
+
+    private static MapSession adminSession() {
+        DropboxAdminPrincipal principal =
+                new DropboxAdminPrincipal("dbmid:admin", "admin@example.com", "Admin User", "dbtid:team");
+        OAuth2AuthenticationToken token = new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "dbx");
+        token.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-id"));
+
+        MapSession session = new MapSession();
+        session.setCreationTime(Instant.parse("2024-01-01T00:00:00Z"));
+        session.setLastAccessedTime(Instant.parse("2024-01-01T00:05:00Z"));
+        session.setMaxInactiveInterval(Duration.ofMinutes(30));
+        session.setAttribute(CONTEXT_KEY, new SecurityContextImpl(token));
+        session.setAttribute("locale", "en");
+        return session;
+    }
+}
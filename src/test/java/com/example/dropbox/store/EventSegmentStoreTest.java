@@ -0,0 +1,73 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.dto.TeamEventDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventSegmentStore Unit Tests")
+class EventSegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should return the most recent events first")
+    void testRecent_NewestFirst() throws Exception {
+        try (EventSegmentStore store = EventSegmentStore.open(directory, 64 * 1024, 4)) {
+            store.append(events(0, 5));
+
+            List<TeamEventDTO> recent = store.recent(3);
+
+            assertThat(recent).extracting(TeamEventDTO::getTimestamp).containsExactly(4L, 3L, 2L);
+            assertThat(recent.get(0).getActorEmail()).isEqualTo("user4@example.com");
+            assertThat(recent.get(0).getCategory()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover events and cursor after reopening")
+    void testReopen_RecoversState() throws Exception {
+        try (EventSegmentStore store = EventSegmentStore.open(directory, 64 * 1024, 4)) {
+            store.append(events(0, 10));
+            store.writeCursor("cursor-10");
+        }
+
+        try (EventSegmentStore store = EventSegmentStore.open(directory, 64 * 1024, 4)) {
+            assertThat(store.size()).isEqualTo(10);
+            assertThat(store.readCursor()).contains("cursor-10");
+
+            store.append(events(10, 1));
+            assertThat(store.recent(2)).extracting(TeamEventDTO::getTimestamp).containsExactly(10L, 9L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll segments and drop the oldest beyond retention")
+    void testAppend_RollsAndRetains() throws Exception {
+        try (EventSegmentStore store = EventSegmentStore.open(directory, 1024, 3)) {
+            store.append(events(0, 200));
+
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files.filter(path -> path.getFileName().toString().startsWith("segment-"))).hasSize(3);
+            }
+            assertThat(store.size()).isLessThan(200);
+            assertThat(store.recent(1)).extracting(TeamEventDTO::getTimestamp).containsExactly(199L);
+        }
+    }
+
+    private List<TeamEventDTO> events(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> new TeamEventDTO(i, null, "login_success", "Signed in", "User " + i,
+                        "user" + i + "@example.com", "dbmid:" + i))
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.dto.SharingEntryDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SharingInventoryStore Unit Tests")
+class SharingInventoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should resume an interrupted crawl from its checkpoint and drop a torn last record")
+    void testBeginCrawl_ResumesFromCheckpoint() throws Exception {
+        try (SharingInventoryStore store = SharingInventoryStore.open(directory)) {
+            store.beginCrawl();
+            store.append("dbmid:1", List.of(folder("dbmid:1", "1000"), link("dbmid:1")));
+            store.append("dbmid:2", List.of());
+            store.suspendCrawl();
+        }
+        Files.write(directory.resolve("crawl.log"), new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (SharingInventoryStore store = SharingInventoryStore.open(directory)) {
+            assertThat(store.hasCheckpoint()).isTrue();
+            SharingInventoryStore.Checkpoint checkpoint = store.beginCrawl();
+            assertThat(checkpoint.members()).containsExactlyInAnyOrder("dbmid:1", "dbmid:2");
+            assertThat(checkpoint.entries()).isEqualTo(2);
+            assertThat(store.readInventory()).isEmpty();
+
+            store.append("dbmid:3", List.of(folder("dbmid:3", "1000")));
+            store.completeCrawl();
+
+            SharingInventoryStore.Inventory inventory = store.readInventory().orElseThrow();
+            assertThat(inventory.members()).isEqualTo(3);
+            assertThat(inventory.entries()).extracting(SharingEntryDTO::getTeamMemberId)
+                    .containsExactly("dbmid:1", "dbmid:1", "dbmid:3");
+            assertThat(inventory.entries().get(1)).isEqualTo(link("dbmid:1"));
+            assertThat(store.hasCheckpoint()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep serving the previous inventory until a new crawl completes")
+    void testCompleteCrawl_ReplacesInventory() throws Exception {
+        try (SharingInventoryStore store = SharingInventoryStore.open(directory)) {
+            store.beginCrawl();
+            store.append("dbmid:1", List.of(folder("dbmid:1", "1000")));
+            store.completeCrawl();
+
+            store.beginCrawl();
+            store.append("dbmid:1", List.of());
+            assertThat(store.readInventory().orElseThrow().entries()).hasSize(1);
+
+            store.completeCrawl();
+            assertThat(store.readInventory().orElseThrow().entries()).isEmpty();
+        }
+    }
+
+    private static SharingEntryDTO folder(String teamMemberId, String sharedFolderId) {
+        return new SharingEntryDTO(SharingEntryDTO.FOLDER, teamMemberId, sharedFolderId, "Project", "/project", "owner");
+    }
+
+    private static SharingEntryDTO link(String teamMemberId) {
+        return new SharingEntryDTO(SharingEntryDTO.LINK, teamMemberId, "https://www.dropbox.com/s/x/a.pdf", "a.pdf",
+                null, "public");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.dropbox.store;
+
+import com.example.dropbox.cache.RefreshingCache;
+import com.example.dropbox.directory.TeamMemberDirectory;
+import com.example.dropbox.dto.TeamInfoDTO;
+import com.example.dropbox.dto.TeamMemberDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TeamSnapshotManager Unit Tests")
+class TeamSnapshotManagerTest {
+
+    private static final TeamInfoDTO TEAM_INFO = new TeamInfoDTO("Example Team", "dbtid:1", 500, null, 480);
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    @DisplayName("Should restore cached team data on the next start without calling Dropbox")
+    void testRestore_WarmsCaches() {
+        RefreshingCache<String, TeamInfoDTO> teamInfoCache = teamInfoCache();
+        RefreshingCache<String, TeamMemberDirectory> memberCache = memberCache();
+        TeamSnapshotManager manager = manager(teamInfoCache, memberCache, Duration.ofDays(7));
+        manager.restore();
+
+        teamInfoCache.get("dbtid:1", key -> TEAM_INFO);
+        memberCache.get("dbtid:1", key -> TeamMemberDirectory.builder()
+                .add(new TeamMemberDTO("dbmid:1", "a@example.com", "Ann", "active", "team_admin"))
+                .add(new TeamMemberDTO("dbmid:2", null, "Bob", "invited", null))
+                .build());
+        manager.flushOnShutdown();
+
+        RefreshingCache<String, TeamInfoDTO> restartedTeamInfoCache = teamInfoCache();
+        RefreshingCache<String, TeamMemberDirectory> restartedMemberCache = memberCache();
+        TeamSnapshotManager restarted = manager(restartedTeamInfoCache, restartedMemberCache, Duration.ofDays(7));
+        restarted.restore();
+
+        assertThat(restartedTeamInfoCache.get("dbtid:1", key -> {
+            throw new AssertionError("Team info should have been restored");
+        })).isEqualTo(TEAM_INFO);
+        TeamMemberDirectory members = restartedMemberCache.get("dbtid:1", key -> {
+            throw new AssertionError("Members should have been restored");
+        });
+        assertThat(members.size()).isEqualTo(2);
+        assertThat(members.findByEmail("A@example.com")).map(TeamMemberDTO::getDisplayName).contains("Ann");
+        assertThat(members.findByTeamMemberId("dbmid:2")).map(TeamMemberDTO::getEmail).isEmpty();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        restarted.bindTo(registry);
+        assertThat(registry.get("dropbox.snapshot.entries").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("dropbox.snapshot.age").gauge().value()).isLessThan(60);
+    }
+
+    @Test
+    @DisplayName("Should drop snapshots older than max-age instead of restoring them")
+    void testRestore_DropsExpiredSnapshots() throws Exception {
+        TeamSnapshotStore store = TeamSnapshotStore.open(storageDir.resolve("snapshots"));
+        store.write(TeamSnapshotStore.TEAM_INFO, "dbtid:1", System.currentTimeMillis() - Duration.ofDays(2).toMillis(),
+                TeamSnapshotStore.encodeTeamInfo(TEAM_INFO));
+
+        RefreshingCache<String, TeamInfoDTO> teamInfoCache = teamInfoCache();
+        manager(teamInfoCache, memberCache(), Duration.ofDays(1)).restore();
+
+        assertThat(teamInfoCache.getIfPresent("dbtid:1")).isNull();
+        assertThat(store.list()).isEmpty();
+    }
+
+    private TeamSnapshotManager manager(RefreshingCache<String, TeamInfoDTO> teamInfoCache,
+                                        RefreshingCache<String, TeamMemberDirectory> memberCache, Duration maxAge) {
+        return new TeamSnapshotManager(teamInfoCache, memberCache, true, storageDir, maxAge);
+    }
+
+    private static RefreshingCache<String, TeamInfoDTO> teamInfoCache() {
+        return new RefreshingCache<>("team-info", Duration.ofMinutes(10), Duration.ofHours(1), 100, Runnable::run);
+    }
+
+    private static RefreshingCache<String, TeamMemberDirectory> memberCache() {
+        return new RefreshingCache<>("team-members", Duration.ofMinutes(30), Duration.ofHours(6), 100, Runnable::run);
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.dropbox.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Dropbox endpoints this app calls, served over plain HTTP so tests, benchmarks
+ * and load tests can run the real WebClient/RestTemplate stack without network access.
+ *
+ * <ul>
+ *   <li>{@code /oauth2/authorize} redirects straight back with a code, and {@code /oauth2/token}
+ *       exchanges codes and refresh tokens. Each login is issued a new admin, round-robin over
+ *       {@link #admins(int)}.</li>
+ *   <li>{@code get_authenticated_admin}, {@code team/get_info}, {@code members/list} and
+ *       {@code team_log/get_events}, with their {@code /continue} variants, serve generated data sized by
+ *       {@link #members(int)} and {@link #events(int)}. {@code members/get_info_v2} looks up those members
+ *       by {@code dbmid:member-N} or {@code memberN@example.com}. {@code sharing/list_folders} and
+ *       {@code sharing/list_shared_links} answer for the member named in {@code Dropbox-API-Select-User}.</li>
+ *   <li>{@link #latency}, {@link #errorRate} and {@link #rateLimit} inject delay, 500s and 429s with a
+ *       {@code Retry-After}.</li>
+ * </ul>
+ *
+ * A body registered with {@link #respond} overrides the generated response for that path.
+ */
+public class MockDropboxServer implements AutoCloseable {
+
+    public static final String TEAM_ID = "dbtid:AAC9tDKbzTQlyNms0ZcB_iH3wLv7yNn-iyE";
+
+    public static final String TEAM_INFO_JSON = """
+            {"name": "Example Team", "team_id": "dbtid:AAC9tDKbzTQlyNms0ZcB_iH3wLv7yNn-iyE",
+             "num_licensed_users": 500, "num_provisioned_users": 487, "num_used_licenses": 480,
+             "policies": {"sharing": {"shared_folder_member_policy": {".tag": "team"},
+                                      "shared_folder_join_policy": {".tag": "from_anyone"},
+                                      "shared_link_create_policy": {".tag": "team_only"}},
+                          "emm_state": {".tag": "disabled"},
+                          "office_addin": {".tag": "disabled"}}}
+            """;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Pattern MEMBER_SELECTOR = Pattern.compile("(?:dbmid:member-|member)(\\d+)(?:@example\\.com)?");
+    private static final String[] STATUSES = {"active", "active", "active", "active", "invited", "suspended"};
+    private static final String[][] EVENT_TYPES = {
+            {"sharing", "shared_link_create", "Created shared link"},
+            {"sharing", "shared_content_add_member", "Added member to shared content"},
+            {"logins", "login_success", "Signed in"},
+            {"file_operations", "file_add", "Added file"},
+            {"members", "member_change_status", "Changed member status"}};
+
+    static {
+        // Headers and body go out in separate writes; without TCP_NODELAY every response waits on a delayed ACK.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+    private final Map<String, Integer> adminsByCode = new ConcurrentHashMap<>();
+    private final Map<String, Integer> adminsByToken = new ConcurrentHashMap<>();
+    private final AtomicInteger logins = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final Map<String, AtomicLong> requestsByPath = new ConcurrentHashMap<>();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile int admins = 1;
+    private volatile int members = 25;
+    private volatile int events = 50;
+    private volatile long rateLimitIntervalNanos;
+    private volatile int retryAfterSeconds = 1;
+    private long nextPermitNanos;
+
+    public MockDropboxServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public MockDropboxServer start() {
+        server.start();
+        return this;
+    }
+
+    public MockDropboxServer respond(String path, String json) {
+        responses.put(path, json.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    public MockDropboxServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // Share of API calls, between 0 and 1, answered with a 500.
+    public MockDropboxServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    // Server-wide requests per second before calls are answered with a 429; 0 disables the limit.
+    public MockDropboxServer rateLimit(double permitsPerSecond, int retryAfterSeconds) {
+        this.rateLimitIntervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000d / permitsPerSecond) : 0;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    public MockDropboxServer admins(int admins) {
+        this.admins = Math.max(1, admins);
+        return this;
+    }
+
+    public MockDropboxServer members(int members) {
+        this.members = members;
+        return this;
+    }
+
+    public MockDropboxServer events(int events) {
+        this.events = events;
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long requestCount(String path) {
+        AtomicLong count = requestsByPath.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream request = exchange.getRequestBody()) {
+            byte[] body = request.readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            requests.incrementAndGet();
+            requestsByPath.computeIfAbsent(path, key -> new AtomicLong()).incrementAndGet();
+
+            pause();
+            if (path.equals("/oauth2/authorize")) {
+                authorize(exchange);
+                return;
+            }
+            if (!path.equals("/oauth2/token")) {
+                if (!acquirePermit()) {
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                    send(exchange, 429, Map.of("error_summary", "too_many_requests/",
+                            "error", Map.of("reason", Map.of(".tag", "too_many_requests"),
+                                    "retry_after", retryAfterSeconds)));
+                    return;
+                }
+                if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    send(exchange, 500, Map.of("error_summary", "internal_error/"));
+                    return;
+                }
+            }
+
+            byte[] canned = responses.get(path);
+            if (canned != null) {
+                sendBytes(exchange, 200, canned);
+                return;
+            }
+
+            switch (path) {
+                case "/oauth2/token" -> orError(exchange, token(form(body)), 400, "invalid_grant");
+                case "/2/team/token/get_authenticated_admin" ->
+                        orError(exchange, authenticatedAdmin(exchange), 401, "invalid_access_token/");
+                case "/2/team/get_info" -> sendBytes(exchange, 200, TEAM_INFO_JSON.getBytes(StandardCharsets.UTF_8));
+                case "/2/team/members/list" -> send(exchange, 200, membersPage(0, json(body).path("limit").asInt(1000)));
+                case "/2/team/members/list/continue" -> send(exchange, 200, membersPage(cursorOffset(json(body)), 1000));
+                case "/2/team/members/get_info_v2" -> send(exchange, 200, membersInfo(json(body)));
+                case "/2/team_log/get_events" -> send(exchange, 200, eventsPage(0, json(body).path("limit").asInt(1000)));
+                case "/2/team_log/get_events/continue" -> send(exchange, 200, eventsPage(cursorOffset(json(body)), 1000));
+                case "/2/sharing/list_folders" -> orError(exchange, sharedFolders(exchange), 400, "invalid_select_user");
+                case "/2/sharing/list_shared_links" -> orError(exchange, sharedLinks(exchange), 400, "invalid_select_user");
+                default -> exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private static void orError(HttpExchange exchange, Object response, int status, String error) throws IOException {
+        if (response != null) {
+            send(exchange, 200, response);
+        } else {
+            send(exchange, status, Map.of("error", error));
+        }
+    }
+
+    private void authorize(HttpExchange exchange) throws IOException {
+        Map<String, String> query = form(exchange.getRequestURI().getRawQuery());
+        String code = UUID.randomUUID().toString();
+        adminsByCode.put(code, Math.floorMod(logins.getAndIncrement(), admins));
+
+        String location = query.get("redirect_uri") + "?code=" + code
+                + "&state=" + URLEncoder.encode(query.getOrDefault("state", ""), StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private Object token(Map<String, String> form) {
+        Integer admin = switch (form.getOrDefault("grant_type", "")) {
+            case "authorization_code" -> adminsByCode.remove(form.get("code"));
+            case "refresh_token" -> adminFromRefreshToken(form.get("refresh_token"));
+            default -> null;
+        };
+        if (admin == null) {
+            return Map.of("error", "invalid_grant");
+        }
+        String accessToken = "sl." + UUID.randomUUID();
+        adminsByToken.put(accessToken, admin);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", accessToken);
+        response.put("token_type", "bearer");
+        response.put("expires_in", 14_400);
+        response.put("refresh_token", "refresh-" + admin);
+        response.put("scope", "team_info.read members.read events.read");
+        response.put("team_id", TEAM_ID);
+        response.put("account_id", "dbid:admin-" + admin);
+        return response;
+    }
+
+    private static Integer adminFromRefreshToken(String refreshToken) {
+        try {
+            return refreshToken != null ? Integer.valueOf(refreshToken.substring("refresh-".length())) : null;
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private Object authenticatedAdmin(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        Integer admin = authorization != null && authorization.startsWith("Bearer ")
+                ? adminsByToken.get(authorization.substring("Bearer ".length()))
+                : Integer.valueOf(0);
+        if (admin == null) {
+            return null;
+        }
+        return Map.of("admin_profile", Map.of(
+                "team_member_id", "dbmid:admin-" + admin,
+                "account_id", "dbid:admin-" + admin,
+                "email", "admin" + admin + "@example.com",
+                "email_verified", true,
+                "status", Map.of(".tag", "active"),
+                "name", Map.of("given_name", "Admin", "surname", String.valueOf(admin),
+                        "familiar_name", "Admin", "display_name", "Admin " + admin,
+                        "abbreviated_name", "A" + admin),
+                "membership_type", Map.of(".tag", "full"),
+                "joined_on", "2020-01-01T00:00:00Z"));
+    }
+
+    private Object membersPage(int offset, int limit) {
+        int end = Math.min(members, offset + Math.max(1, limit));
+        List<Object> page = new ArrayList<>(end - offset);
+        for (int i = offset; i < end; i++) {
+            page.add(Map.of(
+                    "profile", Map.of(
+                            "team_member_id", "dbmid:member-" + i,
+                            "account_id", "dbid:member-" + i,
+                            "email", "member" + i + "@example.com",
+                            "email_verified", true,
+                            "status", Map.of(".tag", STATUSES[i % STATUSES.length]),
+                            "name", Map.of("display_name", "Member " + i, "given_name", "Member",
+                                    "surname", String.valueOf(i)),
+                            "membership_type", Map.of(".tag", "full")),
+                    "role", Map.of(".tag", i == 0 ? "team_admin" : "member_only")));
+        }
+        return Map.of("members", page, "cursor", "members:" + end, "has_more", end < members);
+    }
+
+    // Events are numbered oldest first and spread over the past day, newest last.
+    private Object eventsPage(int offset, int limit) {
+        int end = Math.min(events, offset + Math.max(1, limit));
+        Instant now = Instant.now();
+        List<Object> page = new ArrayList<>(end - offset);
+        for (int i = offset; i < end; i++) {
+            String[] type = EVENT_TYPES[i % EVENT_TYPES.length];
+            int actor = i % Math.max(1, members);
+            page.add(Map.of(
+                    "timestamp", now.minusSeconds(86_400L * (events - i) / Math.max(1, events)).toString(),
+                    "event_category", Map.of(".tag", type[0]),
+                    "event_type", Map.of(".tag", type[1], "description", type[2]),
+                    "actor", Map.of(".tag", "user", "user", Map.of(
+                            "display_name", "Member " + actor,
+                            "email", "member" + actor + "@example.com",
+                            "team_member_id", "dbmid:member-" + actor)),
+                    "details", Map.of(".tag", type[1] + "_details")));
+        }
+        return Map.of("events", page, "cursor", "events:" + end, "has_more", end < events);
+    }
+
+    // Member i has i % 4 shared folders, drawn from ten team-wide folders, and i % 3 shared links.
+    private Object sharedFolders(HttpExchange exchange) {
+        Integer member = selectedMember(exchange);
+        if (member == null) {
+            return null;
+        }
+        List<Object> entries = new ArrayList<>();
+        for (int j = 0; j < member % 4; j++) {
+            int folder = (member + j) % 10;
+            entries.add(Map.of(
+                    "name", "Project " + folder,
+                    "shared_folder_id", String.valueOf(1000 + folder),
+                    "path_lower", "/project " + folder,
+                    "access_type", Map.of(".tag", j == 0 ? "owner" : "editor")));
+        }
+        return Map.of("entries", entries);
+    }
+
+    private Object sharedLinks(HttpExchange exchange) {
+        Integer member = selectedMember(exchange);
+        if (member == null) {
+            return null;
+        }
+        List<Object> links = new ArrayList<>();
+        for (int j = 0; j < member % 3; j++) {
+            links.add(Map.of(
+                    ".tag", "file",
+                    "url", "https://www.dropbox.com/s/" + member + "-" + j + "/report.pdf",
+                    "name", "report-" + member + "-" + j + ".pdf",
+                    "path_lower", "/reports/report-" + member + "-" + j + ".pdf",
+                    "link_permissions", Map.of("resolved_visibility", Map.of(".tag", j == 0 ? "public" : "team_only"))));
+        }
+        return Map.of("links", links, "has_more", false);
+    }
+
+    private Object membersInfo(JsonNode request) {
+        List<Object> results = new ArrayList<>();
+        for (JsonNode selector : request.path("members")) {
+            String tag = selector.path(".tag").asText();
+            String value = selector.path(tag).asText();
+            Matcher matcher = MEMBER_SELECTOR.matcher(value);
+            int member = matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+            if (member < 0 || member >= members) {
+                results.add(Map.of(".tag", "id_not_found", "id_not_found", value));
+                continue;
+            }
+            results.add(Map.of(
+                    ".tag", "member_info",
+                    "profile", Map.of(
+                            "team_member_id", "dbmid:member-" + member,
+                            "email", "member" + member + "@example.com",
+                            "name", Map.of("display_name", "Member " + member),
+                            "status", Map.of(".tag", STATUSES[member % STATUSES.length])),
+                    "roles", member == 0
+                            ? List.of(Map.of("role_id", "pid_dbtmr:team_admin", "name", "Team"))
+                            : List.of()));
+        }
+        return Map.of("members_info", results);
+    }
+
+    private static Integer selectedMember(HttpExchange exchange) {
+        String selectUser = exchange.getRequestHeaders().getFirst("Dropbox-API-Select-User");
+        if (selectUser == null || !selectUser.startsWith("dbmid:member-")) {
+            return null;
+        }
+        return Integer.valueOf(selectUser.substring("dbmid:member-".length()));
+    }
+
+    private void pause() {
+        Duration delay = latency;
+        if (!delay.isZero()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized boolean acquirePermit() {
+        long interval = rateLimitIntervalNanos;
+        if (interval == 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        // Allows a one-second burst before requests are turned away.
+        long earliest = now - interval * Math.max(1, 1_000_000_000L / interval);
+        nextPermitNanos = Math.max(nextPermitNanos, earliest);
+        if (nextPermitNanos > now) {
+            return false;
+        }
+        nextPermitNanos += interval;
+        return true;
+    }
+
+    private static int cursorOffset(JsonNode body) {
+        String cursor = body.path("cursor").asText("");
+        int separator = cursor.indexOf(':');
+        try {
+            return separator >= 0 ? Integer.parseInt(cursor.substring(separator + 1)) : 0;
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static JsonNode json(byte[] body) throws IOException {
+        return body.length > 0 ? JSON.readTree(body) : JSON.createObjectNode();
+    }
+
+    private static Map<String, String> form(byte[] body) {
+        return form(new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> form(String encoded) {
+        Map<String, String> values = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return values;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator >= 0 ? pair.substring(0, separator) : pair;
+            String value = separator >= 0 ? pair.substring(separator + 1) : "";
+            values.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        sendBytes(exchange, status, JSON.writeValueAsBytes(body));
+    }
+
+    private static void sendBytes(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
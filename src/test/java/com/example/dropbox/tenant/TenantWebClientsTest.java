@@ -0,0 +1,70 @@
+package com.example.dropbox.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TenantWebClients Unit Tests")
+class TenantWebClientsTest {
+
+    private final WebClient baseWebClient = WebClient.create();
+    private final List<ConnectionProvider> pools = new ArrayList<>();
+    private AtomicLong clock;
+    private TenantWebClients tenantWebClients;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        tenantWebClients = new TenantWebClients(baseWebClient,
+                teamKey -> ConnectionProvider.builder("test-" + teamKey).maxConnections(2),
+                pool -> {
+                    pools.add(pool);
+                    return new ReactorClientHttpConnector(HttpClient.create(pool));
+                },
+                Duration.ofMinutes(10), clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tenantWebClients.destroy();
+    }
+
+    @Test
+    @DisplayName("Should give each team its own client and pool, and fall back to the shared client without a team")
+    void testForTeam_IsolatesTeams() {
+        WebClient teamA = tenantWebClients.forTeam("team-a");
+        WebClient teamB = tenantWebClients.forTeam("team-b");
+
+        assertThat(tenantWebClients.forTeam("team-a")).isSameAs(teamA);
+        assertThat(teamB).isNotSameAs(teamA).isNotSameAs(baseWebClient);
+        assertThat(tenantWebClients.forTeam(null)).isSameAs(baseWebClient);
+        assertThat(pools).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should dispose pools of idle teams and recreate them on the next call")
+    void testPruneIdle_DisposesIdlePools() {
+        WebClient teamA = tenantWebClients.forTeam("team-a");
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        tenantWebClients.forTeam("team-b");
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        tenantWebClients.pruneIdle();
+
+        assertThat(tenantWebClients.size()).isEqualTo(1);
+        assertThat(tenantWebClients.forTeam("team-a")).isNotSameAs(teamA);
+        assertThat(pools).hasSize(3);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.dropbox.throttle;
+
+import com.example.dropbox.exception.DropboxApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DropboxCallScheduler Unit Tests")
+class DropboxCallSchedulerTest {
+
+    private SimpleMeterRegistry registry;
+    private AtomicLong clock;
+    private DropboxCallScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        scheduler = new DropboxCallScheduler(registry, 100, 100, 1, 2, Duration.ofMillis(500), 10, 3, 2,
+                Duration.ofMillis(1), Duration.ofMillis(5), 3, Duration.ofSeconds(30), clock::get);
+    }
+
+    @Test
+    @DisplayName("Should reject calls whose team budget would take longer than max-wait")
+    void testAcquire_TeamBudgetExhausted() {
+        scheduler.acquireBlocking("team-a");
+        scheduler.acquireBlocking("team-a");
+
+        assertThatThrownBy(() -> scheduler.acquire("team-a").block())
+                .isInstanceOf(DropboxApiException.class)
+                .satisfies(ex -> assertThat(((DropboxApiException) ex).getRetryAfter()).isNotNull());
+
+        scheduler.acquire("team-b").block();
+        assertThat(registry.get("dropbox.api.throttle.rejected").tag("reason", "max-wait").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should cap each team's queue and keep queued calls from holding app-wide permits")
+    void testAcquire_BusyTeamDoesNotStarveOthers() {
+        SimpleMeterRegistry fairRegistry = new SimpleMeterRegistry();
+        DropboxCallScheduler fair = new DropboxCallScheduler(fairRegistry, 1, 2, 10, 1, Duration.ofSeconds(10), 100, 3, 2,
+                Duration.ofMillis(1), Duration.ofMillis(5), 3, Duration.ofSeconds(30), clock::get);
+
+        fair.acquireBlocking("team-a");
+        for (int i = 0; i < 3; i++) {
+            fair.acquire("team-a").subscribe();
+        }
+
+        assertThat(fair.queueDepth()).isEqualTo(3);
+        assertThatThrownBy(() -> fair.acquireBlocking("team-a")).isInstanceOf(DropboxApiException.class);
+        assertThat(fairRegistry.get("dropbox.api.throttle.rejected").tag("reason", "team-queue-full").counter().count())
+                .isEqualTo(1);
+
+        // team-a's queued calls haven't taken the remaining app permit, so team-b goes straight out.
+        fair.acquire("team-b").block(Duration.ofMillis(200));
+    }
+
+    @Test
+    @DisplayName("Should pause only the throttled team for the Retry-After window")
+    void testOnResponse_TooManyRequestsPausesTeam() {
+        boolean retry = scheduler.onResponse("team-a", HttpStatus.TOO_MANY_REQUESTS, Duration.ofSeconds(60));
+
+        assertThat(retry).isTrue();
+        assertThatThrownBy(() -> scheduler.acquireBlocking("team-a"))
+                .isInstanceOf(DropboxApiException.class)
+                .satisfies(ex -> assertThat(((DropboxApiException) ex).getRetryAfter()).isEqualTo(Duration.ofSeconds(60)));
+        scheduler.acquireBlocking("team-b");
+        assertThat(scheduler.circuitState("team-a")).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should not delay other teams when a call without a team is throttled")
+    void testOnResponse_TeamlessThrottleDoesNotPauseApp() {
+        boolean tooManyRequests = scheduler.onResponse(null, HttpStatus.TOO_MANY_REQUESTS, Duration.ofSeconds(60));
+        scheduler.onResponse(null, HttpStatus.SERVICE_UNAVAILABLE, Duration.ofSeconds(60));
+
+        // With the clock frozen, a paused app bucket would reject these as past max-wait.
+        scheduler.acquireBlocking("team-a");
+        scheduler.acquireBlocking("team-b");
+        scheduler.acquireBlocking(null);
+
+        assertThat(tooManyRequests).isFalse();
+        assertThat(scheduler.onResponse(null, HttpStatus.TOO_MANY_REQUESTS, Duration.ofMillis(200))).isTrue();
+        assertThat(scheduler.backoff(null, 0, Duration.ofMillis(200))).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+        assertThat(scheduler.backoff("team-a", 0, Duration.ofMillis(200))).isLessThan(Duration.ofMillis(200));
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after consecutive server errors and close it after a good probe")
+    void testCircuitBreaker_OpensAndRecovers() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.onResponse(null, HttpStatus.BAD_GATEWAY, null);
+        }
+
+        assertThat(scheduler.circuitState(null)).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> scheduler.acquireBlocking(null)).isInstanceOf(DropboxApiException.class);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        scheduler.acquireBlocking(null);
+        assertThat(scheduler.circuitState(null)).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(() -> scheduler.acquireBlocking(null)).isInstanceOf(DropboxApiException.class);
+
+        scheduler.onResponse(null, HttpStatus.OK, null);
+        assertThat(scheduler.circuitState(null)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should open only the failing team's circuit")
+    void testCircuitBreaker_PerTeam() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.onResponse("team-a", HttpStatus.BAD_GATEWAY, null);
+        }
+        scheduler.onIoFailure("team-b");
+
+        assertThat(scheduler.circuitState("team-a")).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> scheduler.acquireBlocking("team-a")).isInstanceOf(DropboxApiException.class);
+        scheduler.acquireBlocking("team-b");
+        scheduler.acquireBlocking(null);
+        assertThat(scheduler.circuitState("team-b")).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(registry.get("dropbox.api.circuit.open").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should retry throttled WebClient calls and pass the final response through")
+    void testExchangeFilter_RetriesThenSucceeds() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> calls.incrementAndGet() == 1
+                        ? Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS)
+                                .header("Retry-After", "0").build())
+                        : Mono.just(ClientResponse.create(HttpStatus.OK).body("ok").build()))
+                .filter(new ThrottlingExchangeFilterFunction(scheduler))
+                .build();
+
+        String body = webClient.post().uri("https://api.dropboxapi.com/2/team/get_info")
+                .retrieve().bodyToMono(String.class).block();
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(registry.get("dropbox.api.retries").counter().count()).isEqualTo(1);
+        assertThat(scheduler.queueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should parse Retry-After as seconds or an HTTP date")
+    void testRetryAfter_Parse() {
+        assertThat(RetryAfter.parse("7")).isEqualTo(Duration.ofSeconds(7));
+        assertThat(RetryAfter.parse("Wed, 21 Oct 2015 07:28:00 GMT")).isEqualTo(Duration.ZERO);
+        assertThat(RetryAfter.parse("soon")).isNull();
+        assertThat(RetryAfter.parse((String) null)).isNull();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.dropbox.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.OAuth2AuthorizationContext;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TokenRefresher Unit Tests")
+class TokenRefresherTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final ClientRegistration registration = ClientRegistration.withRegistrationId("dbx")
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .authorizationUri("https://www.dropbox.com/oauth2/authorize")
+            .tokenUri("https://api.dropboxapi.com/oauth2/token")
+            .build();
+
+    private SimpleMeterRegistry registry;
+    private TokenRefresher refresher;
+    private AtomicInteger tokenRequests;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        tokenRequests = new AtomicInteger();
+        refresher = new TokenRefresher(registry, Duration.ofMinutes(5), Duration.ofSeconds(60),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should refresh only tokens inside the refresh-ahead window")
+    void testNeedsRefresh() {
+        assertThat(refresher.needsRefresh(client(NOW.plus(Duration.ofMinutes(3))))).isTrue();
+        assertThat(refresher.needsRefresh(client(NOW.plus(Duration.ofHours(3))))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should leave tokens outside the inline skew to the background refresh")
+    void testAuthorize_InlineOnlyNearExpiry() {
+        refresher.setAccessTokenResponseClient(request -> tokenResponse());
+
+        assertThat(refresher.authorize(context(client(NOW.plus(Duration.ofMinutes(3)))))).isNull();
+        assertThat(refresher.authorize(context(client(NOW.plus(Duration.ofSeconds(30))))).getAccessToken().getTokenValue())
+                .isEqualTo("refreshed");
+        assertThat(registry.get("dropbox.oauth.token.refresh").tags("trigger", "inline", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should send one token request when the same principal refreshes concurrently")
+    void testRefresh_Coalesced() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        refresher.setAccessTokenResponseClient(request -> {
+            tokenRequests.incrementAndGet();
+            entered.countDown();
+            await(release);
+            return tokenResponse();
+        });
+        OAuth2AuthorizedClient expiring = client(NOW.plus(Duration.ofMinutes(1)));
+
+        CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture.supplyAsync(
+                () -> refresher.refresh(context(expiring), TokenRefresher.BACKGROUND));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<OAuth2AuthorizedClient> second = CompletableFuture.supplyAsync(
+                () -> refresher.refresh(context(expiring), TokenRefresher.INLINE));
+
+        while (registry.get("dropbox.oauth.token.refresh.coalesced").counter().count() == 0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getAccessToken().getTokenValue()).isEqualTo("refreshed");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get());
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(refresher.isRefreshing(expiring)).isFalse();
+    }
+
+    private OAuth2AuthorizedClient client(Instant expiresAt) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "old",
+                expiresAt.minus(Duration.ofHours(4)), expiresAt);
+        return new OAuth2AuthorizedClient(registration, "dbmid:admin", accessToken,
+                new OAuth2RefreshToken("refresh-token", NOW.minus(Duration.ofDays(1))));
+    }
+
+    private static OAuth2AuthorizationContext context(OAuth2AuthorizedClient client) {
+        return OAuth2AuthorizationContext.withAuthorizedClient(client)
+                .principal(UsernamePasswordAuthenticationToken.authenticated(
+                        client.getPrincipalName(), null, AuthorityUtils.NO_AUTHORITIES))
+                .build();
+    }
+
+    private static OAuth2AccessTokenResponse tokenResponse() {
+        return OAuth2AccessTokenResponse.withToken("refreshed")
+                .tokenType(OAuth2AccessToken.TokenType.BEARER)
+                .expiresIn(14_400)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}